@@ -0,0 +1,42 @@
+import java.time.LocalDate;
+
+// Aggregates for one period and one group of rooms (a type, a place, or all rooms).
+// Revenue is a stay's bill spread evenly over its nights, so a stay that crosses a
+// period boundary counts towards each period by the nights it spends there.
+public class AnalyticsRow {
+    private final LocalDate periodStart;
+    private final String group;
+    private final long roomNights;
+    private final long soldNights;
+    private final long revenueCents;
+
+    public AnalyticsRow(LocalDate periodStart, String group, long roomNights, long soldNights, long revenueCents) {
+        this.periodStart = periodStart;
+        this.group = group;
+        this.roomNights = roomNights;
+        this.soldNights = soldNights;
+        this.revenueCents = revenueCents;
+    }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public String getGroup() { return group; }
+    // Nights the group's rooms could have been sold in the period
+    public long getRoomNights() { return roomNights; }
+    public long getSoldNights() { return soldNights; }
+    public long getRevenueCents() { return revenueCents; }
+
+    // Occupancy in basis points of a percent (4520 = 45.20%)
+    public long getOccupancyBasisPoints() {
+        return roomNights == 0 ? 0 : soldNights * 10_000 / roomNights;
+    }
+
+    // Average daily rate: revenue per sold night
+    public long getAdrCents() {
+        return soldNights == 0 ? 0 : revenueCents / soldNights;
+    }
+
+    // Revenue per available room night
+    public long getRevParCents() {
+        return roomNights == 0 ? 0 : revenueCents / roomNights;
+    }
+}
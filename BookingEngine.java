@@ -0,0 +1,181 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Booking write path shared by every caller. Each room's availability check and
+// the insert that depends on it run under that room's own lock (the monitor of
+// its ReservationIntervalIndex), so bookings for different rooms never contend
+// and two callers can never both win the same dates for one room. Each change is
+// appended to the journal and published to the event bus under that same lock, so
+// replay and consumers see a room's changes in the order they were made; only the
+// wait for the journal's fsync comes after the lock is released.
+public class BookingEngine {
+    private final RoomRepository rooms;
+    private final ReservationRepository reservations;
+    private final HotelJournal journal;
+    private final ReservationArchive archive;
+    private final IdGenerator reservationIds;
+    private final PricingEngine pricing;
+    private final BookingEventBus events;
+
+    public BookingEngine(RoomRepository rooms, ReservationRepository reservations, IdGenerator reservationIds,
+                         HotelJournal journal, ReservationArchive archive, PricingEngine pricing,
+                         BookingEventBus events) {
+        this.rooms = rooms;
+        this.reservations = reservations;
+        this.reservationIds = reservationIds;
+        this.journal = journal;
+        this.archive = archive;
+        this.pricing = pricing;
+        this.events = events;
+    }
+
+    // Books the first room of the given type that is free for the whole stay, billed
+    // at the room's current rates. Admin bookings also require the room's vacancy
+    // flag and clear it.
+    public Reservation reserve(String userId, String roomType, LocalDate checkIn, LocalDate checkOut,
+                               boolean markOccupied) {
+        int checkInDay = Reservation.toEpochDay(checkIn);
+        int checkOutDay = Reservation.toEpochDay(checkOut);
+        for (Room room : rooms.findByType(roomType)) {
+            Reservation booked = tryReserve(room, userId, checkInDay, checkOutDay, markOccupied);
+            if (booked != null) {
+                journal.awaitDurable();
+                return booked;
+            }
+        }
+        throw new IllegalArgumentException("No vacant " + roomType + " rooms available for these dates!");
+    }
+
+    // Books count rooms for the same stay in one pass over the ranked candidates,
+    // each at its own rates. All or nothing: if fewer than count can be had, the
+    // ones already taken are released again, journaled and published as cancelled.
+    public List<Reservation> reserveGroup(String userId, List<Room> candidates, LocalDate checkIn,
+                                          LocalDate checkOut, int count) {
+        int checkInDay = Reservation.toEpochDay(checkIn);
+        int checkOutDay = Reservation.toEpochDay(checkOut);
+        List<Reservation> booked = new ArrayList<>(count);
+        for (Room room : candidates) {
+            Reservation r = tryReserve(room, userId, checkInDay, checkOutDay, false);
+            if (r != null) booked.add(r);
+            if (booked.size() == count) break;
+        }
+        if (booked.size() < count) {
+            for (Reservation r : booked) release(r);
+            journal.awaitDurable();
+            throw new IllegalArgumentException("Only " + booked.size() + " of " + count
+                    + " rooms available for these dates!");
+        }
+        journal.awaitDurable();
+        return booked;
+    }
+
+    // Books one stay without waiting for the journal to reach disk, for bulk loads
+    // that wait once per batch through syncJournal. roomNumber -1 takes the first
+    // free room of the type. Returns null if no such room is free.
+    Reservation reserveUnsynced(String userId, String roomType, int roomNumber, int checkInDay, int checkOutDay) {
+        if (roomNumber != -1) {
+            Room room = rooms.findByNumber(roomNumber);
+            if (room == null || !room.getType().equals(roomType)) return null;
+            return tryReserve(room, userId, checkInDay, checkOutDay, false);
+        }
+        for (Room room : rooms.findByType(roomType)) {
+            Reservation booked = tryReserve(room, userId, checkInDay, checkOutDay, false);
+            if (booked != null) return booked;
+        }
+        return null;
+    }
+
+    void syncJournal() {
+        journal.awaitDurable();
+    }
+
+    // The bill is quoted before the booking itself raises the room group's occupancy
+    private Reservation tryReserve(Room room, String userId, int checkInDay, int checkOutDay,
+                                   boolean markOccupied) {
+        ReservationIntervalIndex index = room.getReservationIndex();
+        synchronized (index) {
+            if (markOccupied && !room.isVacant()) return null;
+            if (index.overlaps(checkInDay, checkOutDay, -1)) return null;
+            Reservation r = new Reservation(reservationIds.next(), checkInDay, checkOutDay,
+                    room.getRoomNumber(), pricing.quote(room, checkInDay, checkOutDay), userId);
+            reservations.add(r);
+            if (markOccupied) room.setVacant(false);
+            journal.appendReserve(r);
+            if (markOccupied) journal.appendRoomVacancy(room.getRoomNumber(), false);
+            events.publishReservation(BookingEvent.Type.RESERVED, r);
+            if (markOccupied) events.publishRoomVacancy(room.getRoomNumber(), false);
+            return r;
+        }
+    }
+
+    // Moves a reservation to new dates in its room. Returns the conflicting
+    // reservations if the room is taken; an empty list means the change was applied.
+    public List<Reservation> changeDates(Reservation r, LocalDate newCheckIn, LocalDate newCheckOut) {
+        Room room = rooms.findByNumber(r.getRoomNumber());
+        int checkInDay = Reservation.toEpochDay(newCheckIn);
+        int checkOutDay = Reservation.toEpochDay(newCheckOut);
+        ReservationIntervalIndex index = room.getReservationIndex();
+        synchronized (index) {
+            List<Reservation> conflicts = index.overlapping(checkInDay, checkOutDay, r.getReservationId());
+            if (!conflicts.isEmpty()) return conflicts;
+            if (!reservations.changeDates(r, checkInDay, checkOutDay))
+                throw new IllegalArgumentException("Reservation not found or not an upcoming booking.");
+            journal.appendUpdateDates(r);
+            events.publishReservation(BookingEvent.Type.DATES_CHANGED, r);
+        }
+        journal.awaitDurable();
+        return Collections.emptyList();
+    }
+
+    public void cancel(Reservation r) {
+        synchronized (bookingLock(rooms.findByNumber(r.getRoomNumber()))) {
+            // Only the caller that actually removed it journals and publishes the cancel
+            if (!reservations.remove(r))
+                throw new IllegalArgumentException("Reservation not found or not an upcoming booking.");
+            journal.appendRemoveReservation(r.getReservationId());
+            events.publishReservation(BookingEvent.Type.CANCELLED, r);
+        }
+        journal.awaitDurable();
+    }
+
+    // Undoes one booking of a group that could not be completed
+    private void release(Reservation r) {
+        synchronized (bookingLock(rooms.findByNumber(r.getRoomNumber()))) {
+            if (!reservations.remove(r)) return;
+            journal.appendRemoveReservation(r.getReservationId());
+            events.publishReservation(BookingEvent.Type.CANCELLED, r);
+        }
+    }
+
+    // Archives a paid reservation and frees its room. Of two racing checkouts only
+    // the one that removes the reservation archives it; the other gets "not found".
+    public void checkout(Reservation r) {
+        Room room = rooms.findByNumber(r.getRoomNumber());
+        synchronized (bookingLock(room)) {
+            if (!reservations.remove(r)) throw new IllegalArgumentException("Reservation not found or not yours!");
+            if (room != null) room.setVacant(true);
+            archive.append(r);
+            if (room != null) journal.appendRoomVacancy(room.getRoomNumber(), true);
+            journal.appendCheckout(r.getReservationId());
+            events.publishReservation(BookingEvent.Type.CHECKED_OUT, r);
+            if (room != null) events.publishRoomVacancy(room.getRoomNumber(), true);
+        }
+        // Either may reach disk first: replay archives a checked-out reservation the
+        // archive is missing, and skips a journaled one it already holds
+        archive.sync();
+        journal.awaitDurable();
+    }
+
+    // Removes a reservation from every view, without journaling
+    void remove(Reservation r) {
+        reservations.remove(r);
+    }
+
+    // The lock the repository takes for a room's bookings; its own monitor for
+    // reservations whose room no longer exists
+    private Object bookingLock(Room room) {
+        return room != null ? room.getReservationIndex() : reservations;
+    }
+}
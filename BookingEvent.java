@@ -0,0 +1,73 @@
+// One slot of the BookingEventBus ring. Slots are allocated once with the ring and
+// overwritten in place for every event, so a handler must copy out anything it
+// wants to keep after onEvent returns. Fields that don't apply to a type are
+// left at 0 / null / false.
+public final class BookingEvent {
+    public enum Type {
+        // Reservation fields set; one per room for group bookings and imports
+        RESERVED,
+        // Reservation fields set, with the new dates
+        DATES_CHANGED,
+        // Reservation fields set; also sent for each reservation of a deleted profile
+        CANCELLED,
+        // Reservation fields set; the room's vacancy follows as ROOM_VACANCY
+        CHECKED_OUT,
+        // roomNumber and vacant set
+        ROOM_VACANCY,
+        // userId set, after that user's CANCELLED events
+        USER_DELETED
+    }
+
+    private Type type;
+    private long timestampMillis;
+    private int reservationId;
+    private String userId;
+    private int roomNumber;
+    private int checkInDay;
+    private int checkOutDay;
+    private long billCents;
+    private boolean vacant;
+
+    void setReservation(Type type, Reservation r) {
+        clear(type);
+        this.reservationId = r.getReservationId();
+        this.userId = r.getUserId();
+        this.roomNumber = r.getRoomNumber();
+        this.checkInDay = r.getCheckInDay();
+        this.checkOutDay = r.getCheckOutDay();
+        this.billCents = r.getBillCents();
+    }
+
+    void setRoomVacancy(int roomNumber, boolean vacant) {
+        clear(Type.ROOM_VACANCY);
+        this.roomNumber = roomNumber;
+        this.vacant = vacant;
+    }
+
+    void setUserDeleted(String userId) {
+        clear(Type.USER_DELETED);
+        this.userId = userId;
+    }
+
+    private void clear(Type type) {
+        this.type = type;
+        this.timestampMillis = System.currentTimeMillis();
+        this.reservationId = 0;
+        this.userId = null;
+        this.roomNumber = 0;
+        this.checkInDay = 0;
+        this.checkOutDay = 0;
+        this.billCents = 0;
+        this.vacant = false;
+    }
+
+    public Type getType() { return type; }
+    public long getTimestampMillis() { return timestampMillis; }
+    public int getReservationId() { return reservationId; }
+    public String getUserId() { return userId; }
+    public int getRoomNumber() { return roomNumber; }
+    public int getCheckInDay() { return checkInDay; }
+    public int getCheckOutDay() { return checkOutDay; }
+    public long getBillCents() { return billCents; }
+    public boolean isVacant() { return vacant; }
+}
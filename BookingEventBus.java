@@ -0,0 +1,214 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Booking changes published to downstream consumers (housekeeping, billing, the
+// channel manager) through a Disruptor-style ring buffer. Every slot is a
+// BookingEvent allocated up front and overwritten in place, so publishing
+// allocates nothing.
+//
+// There is one producer sequence. Booking threads take turns at it under the
+// bus's monitor, which is held only for the few field writes of each event; a
+// producer that finds the ring full waits for the slowest consumer outside the
+// monitor, so one stalled consumer never queues the other producers behind it.
+// Each subscriber runs on its own daemon thread and tracks its own sequence.
+// When it wakes it drains everything published since its last batch, so a
+// busy consumer catches up in large batches.
+//
+// The producer never signals consumers; an idle consumer polls with a short
+// park. A producer only waits when the slowest consumer is a whole ring
+// behind. Events are never dropped. A batch is published one event at a time,
+// so other producers' events may interleave with it.
+public class BookingEventBus {
+    // What a subscriber runs for each event, on its own thread
+    public interface Handler {
+        // endOfBatch is true for the last event available when the batch started,
+        // the place to flush anything buffered
+        void onEvent(BookingEvent event, long sequence, boolean endOfBatch) throws Exception;
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final BookingEvent[] slots;
+    private final int mask;
+    // Highest published sequence; -1 before the first event
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Last claimed sequence, written under the monitor and read outside it while
+    // waiting for room
+    private volatile long claimed = -1;
+    // Under the monitor: the lowest consumer sequence seen when last checking for room
+    private long cachedGate = -1;
+
+    // size is rounded up to a power of two
+    public BookingEventBus(int size) {
+        if (size < 1) throw new IllegalArgumentException("Ring size must be at least 1!");
+        int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        slots = new BookingEvent[capacity];
+        for (int i = 0; i < capacity; i++) slots[i] = new BookingEvent();
+        mask = capacity - 1;
+    }
+
+    // A consumer sees the events published after it subscribes
+    public Subscription subscribe(String name, Handler handler) {
+        Subscription s;
+        synchronized (this) {
+            s = new Subscription(name, handler, claimed);
+            subscriptions.add(s);
+        }
+        s.thread.start();
+        return s;
+    }
+
+    public void publishReservation(BookingEvent.Type type, Reservation r) {
+        while (true) {
+            synchronized (this) {
+                long seq = tryClaim();
+                if (seq != -1) {
+                    slots[(int) seq & mask].setReservation(type, r);
+                    cursor.lazySet(seq);
+                    return;
+                }
+            }
+            awaitRoom();
+        }
+    }
+
+    public void publishReservations(BookingEvent.Type type, List<Reservation> batch) {
+        for (Reservation r : batch) publishReservation(type, r);
+    }
+
+    public void publishRoomVacancy(int roomNumber, boolean vacant) {
+        while (true) {
+            synchronized (this) {
+                long seq = tryClaim();
+                if (seq != -1) {
+                    slots[(int) seq & mask].setRoomVacancy(roomNumber, vacant);
+                    cursor.lazySet(seq);
+                    return;
+                }
+            }
+            awaitRoom();
+        }
+    }
+
+    public void publishUserDeleted(String userId) {
+        while (true) {
+            synchronized (this) {
+                long seq = tryClaim();
+                if (seq != -1) {
+                    slots[(int) seq & mask].setUserDeleted(userId);
+                    cursor.lazySet(seq);
+                    return;
+                }
+            }
+            awaitRoom();
+        }
+    }
+
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    public int getSize() {
+        return slots.length;
+    }
+
+    public List<Subscription> getSubscriptions() {
+        return subscriptions;
+    }
+
+    // Stops every consumer once it has handled everything already published
+    public void close() {
+        for (Subscription s : subscriptions) s.close();
+    }
+
+    // The next sequence, or -1 if the slowest consumer has not freed its slot yet;
+    // under the monitor
+    private long tryClaim() {
+        long next = claimed + 1;
+        long wrapPoint = next - slots.length;
+        if (wrapPoint > cachedGate) {
+            cachedGate = minimumSequence();
+            if (wrapPoint > cachedGate) return -1;
+        }
+        claimed = next;
+        return next;
+    }
+
+    // Parks, without the monitor, until the slowest consumer frees the next slot.
+    // Another producer may take it first, so callers claim again afterwards.
+    private void awaitRoom() {
+        while (claimed + 1 - slots.length > minimumSequence()) LockSupport.parkNanos(1_000);
+    }
+
+    private long minimumSequence() {
+        long min = claimed;
+        for (Subscription s : subscriptions) {
+            if (s.running || s.thread.isAlive()) min = Math.min(min, s.sequence.get());
+        }
+        return min;
+    }
+
+    // One consumer: its handler, thread and position in the ring
+    public final class Subscription {
+        private final String name;
+        private final Handler handler;
+        private final AtomicLong sequence;
+        private final AtomicLong failures = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Subscription(String name, Handler handler, long start) {
+            this.name = name;
+            this.handler = handler;
+            this.sequence = new AtomicLong(start);
+            this.thread = new Thread(this::run, "events-" + name);
+            thread.setDaemon(true);
+        }
+
+        private void run() {
+            long next = sequence.get() + 1;
+            while (true) {
+                long available = cursor.get();
+                if (available < next) {
+                    if (!running) break;
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+                for (long seq = next; seq <= available; seq++) {
+                    try {
+                        handler.onEvent(slots[(int) seq & mask], seq, seq == available);
+                    } catch (Exception e) {
+                        // One bad event must not stop the feed
+                        failures.incrementAndGet();
+                        System.err.println("Event consumer " + name + " failed on event " + seq + ": " + e);
+                    }
+                }
+                sequence.lazySet(available);
+                next = available + 1;
+            }
+        }
+
+        public String getName() { return name; }
+        // Last event this consumer has finished with
+        public long getSequence() { return sequence.get(); }
+        // Events published but not yet handled
+        public long getLag() { return cursor.get() - sequence.get(); }
+        public long getFailures() { return failures.get(); }
+
+        // Drains what is already published, then stops the consumer thread
+        public void close() {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// An event consumer that appends one tab-separated line per booking event to a
+// file, for systems that would rather tail a feed than run in-process:
+//
+//   42  RESERVED  1746094530000  17  U002  201  2025-05-01  2025-05-04  260.00
+//
+// (sequence, type, epoch millis, then the type's fields). Lines are buffered and
+// flushed once per batch.
+public class BookingEventLog implements BookingEventBus.Handler, Closeable {
+    private final Writer file;
+    private final ReportWriter out;
+
+    public BookingEventLog(Path path) throws IOException {
+        file = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        out = new ReportWriter(file);
+    }
+
+    @Override
+    public void onEvent(BookingEvent e, long sequence, boolean endOfBatch) {
+        out.number(sequence).text('\t').text(e.getType().name()).text('\t').number(e.getTimestampMillis());
+        switch (e.getType()) {
+            case ROOM_VACANCY:
+                out.text('\t').number(e.getRoomNumber()).text('\t').text(e.isVacant() ? "vacant" : "occupied");
+                break;
+            case USER_DELETED:
+                out.text('\t').text(e.getUserId());
+                break;
+            default:
+                out.text('\t').number(e.getReservationId())
+                        .text('\t').text(e.getUserId())
+                        .text('\t').number(e.getRoomNumber())
+                        .text('\t').date(e.getCheckInDay())
+                        .text('\t').date(e.getCheckOutDay())
+                        .text('\t').money(e.getBillCents());
+        }
+        out.endRow();
+        if (endOfBatch) out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+        file.close();
+    }
+}
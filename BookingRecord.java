@@ -0,0 +1,38 @@
+import java.time.LocalDate;
+
+// One row of booking history: either a live reservation or an archived, checked-out one
+public class BookingRecord {
+    private final int reservationId;
+    private final int checkInDay;
+    private final int checkOutDay;
+    private final int roomNumber;
+    private final long billCents;
+    private final String userId;
+    private final boolean checkedOut;
+
+    public BookingRecord(int reservationId, int checkInDay, int checkOutDay, int roomNumber,
+                         long billCents, String userId, boolean checkedOut) {
+        this.reservationId = reservationId;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+        this.roomNumber = roomNumber;
+        this.billCents = billCents;
+        this.userId = userId;
+        this.checkedOut = checkedOut;
+    }
+
+    public static BookingRecord of(Reservation r) {
+        return new BookingRecord(r.getReservationId(), r.getCheckInDay(), r.getCheckOutDay(),
+                r.getRoomNumber(), r.getBillCents(), r.getUserId(), false);
+    }
+
+    public int getReservationId() { return reservationId; }
+    public int getCheckInDay() { return checkInDay; }
+    public int getCheckOutDay() { return checkOutDay; }
+    public LocalDate getCheckIn() { return LocalDate.ofEpochDay(checkInDay); }
+    public LocalDate getCheckOut() { return LocalDate.ofEpochDay(checkOutDay); }
+    public int getRoomNumber() { return roomNumber; }
+    public long getBillCents() { return billCents; }
+    public String getUserId() { return userId; }
+    public boolean isCheckedOut() { return checkedOut; }
+}
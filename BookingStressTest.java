@@ -0,0 +1,165 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Concurrency check for the booking engine over a temporary data directory:
+//
+//   java BookingStressTest [threads] [operationsPerThread] [rooms]
+//
+// Every thread books, moves and cancels short stays over the same few rooms and
+// the next few weeks, so most attempts collide. Afterwards no room may hold two
+// reservations whose [checkIn, checkOut] ranges meet, neither in memory nor after
+// the journal is replayed into a fresh service. Any such pair is printed and the
+// run ends with an IllegalStateException, so the exit status is non-zero.
+public class BookingStressTest {
+    private static final String[] TYPES = { "Single", "Double", "Suite" };
+    private static final int BOOKING_DAYS = 45;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int roomCount = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+
+        List<Room> roomList = new ArrayList<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            roomList.add(new Room(TYPES[i % TYPES.length], true, LocalDate.now().toString(), 50.0, "Downtown", 100 + i));
+        }
+        Path dataDir = Files.createTempDirectory("hotel-stress");
+        try {
+            HotelService service = new HotelService(dataDir, roomList);
+            User admin = service.login("U001", "admin123");
+            long start = System.nanoTime();
+            long[] counts = run(service, admin, threads, operations);
+            System.out.printf("threads=%d operations=%d rooms=%d in %.1f s%n",
+                    threads, (long) threads * operations, roomCount, (System.nanoTime() - start) / 1e9);
+            System.out.printf("booked=%d moved=%d cancelled=%d rejected=%d live=%d%n",
+                    counts[0], counts[1], counts[2], counts[3], service.reservationCount());
+            int live = check("in memory", service, admin);
+            service.close();
+
+            // The journal must replay to the same, still conflict-free, bookings
+            HotelService replayed = new HotelService(dataDir, fresh(roomList));
+            int reloaded = check("after replay", replayed, replayed.login("U001", "admin123"));
+            replayed.close();
+            if (reloaded != live) fail("replay restored " + reloaded + " reservations, expected " + live);
+            System.out.println("OK: no double bookings");
+        } finally {
+            deleteRecursively(dataDir);
+        }
+    }
+
+    // Returns booked, moved, cancelled and rejected counts
+    private static long[] run(HotelService service, User admin, int threads, int operations)
+            throws InterruptedException {
+        AtomicLong booked = new AtomicLong();
+        AtomicLong moved = new AtomicLong();
+        AtomicLong cancelled = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        List<Throwable> errors = new ArrayList<>();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Integer> mine = new ArrayList<>();
+                for (int i = 0; i < operations; i++) {
+                    LocalDate checkIn = LocalDate.now().plusDays(1 + random.nextInt(BOOKING_DAYS));
+                    LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(4));
+                    int choice = random.nextInt(10);
+                    try {
+                        if (choice < 6 || mine.isEmpty()) {
+                            mine.add(service.reserve(admin, checkIn, checkOut,
+                                    TYPES[random.nextInt(TYPES.length)]).getReservationId());
+                            booked.incrementAndGet();
+                        } else if (choice < 9) {
+                            int id = mine.get(random.nextInt(mine.size()));
+                            if (service.changeDates(admin, id, checkIn, checkOut).isEmpty()) moved.incrementAndGet();
+                            else rejected.incrementAndGet();
+                        } else {
+                            service.cancel(admin, mine.remove(random.nextInt(mine.size())));
+                            cancelled.incrementAndGet();
+                        }
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet(); // Rooms full, or the booking was already cancelled
+                    } catch (RuntimeException e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    }
+                }
+            }, "stress-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        if (!errors.isEmpty()) {
+            errors.get(0).printStackTrace();
+            fail(errors.size() + " operations failed unexpectedly");
+        }
+        return new long[] { booked.get(), moved.get(), cancelled.get(), rejected.get() };
+    }
+
+    // Fails if two reservations in one room meet; returns how many reservations there are
+    private static int check(String stage, HotelService service, User admin) {
+        Map<Integer, List<Reservation>> byRoom = new HashMap<>();
+        int total = 0;
+        String cursor = null;
+        do {
+            Page<Reservation> page = service.upcoming(admin, cursor, 1_000);
+            for (Reservation r : page.getRows()) {
+                byRoom.computeIfAbsent(r.getRoomNumber(), k -> new ArrayList<>()).add(r);
+                total++;
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        if (total != service.reservationCount())
+            fail(stage + ": listed " + total + " of " + service.reservationCount() + " reservations");
+
+        int conflicts = 0;
+        for (List<Reservation> stays : byRoom.values()) {
+            stays.sort(Comparator.comparingInt(Reservation::getCheckInDay));
+            for (int i = 1; i < stays.size(); i++) {
+                Reservation before = stays.get(i - 1);
+                Reservation after = stays.get(i);
+                // Same rule as the room index: a stay may not start on another's check-out day
+                if (after.getCheckInDay() <= before.getCheckOutDay()) {
+                    System.out.println("Double booking " + stage + " in room " + after.getRoomNumber() + ": #"
+                            + before.getReservationId() + " " + before.getCheckIn() + ".." + before.getCheckOut()
+                            + " and #" + after.getReservationId() + " " + after.getCheckIn() + ".." + after.getCheckOut());
+                    conflicts++;
+                }
+            }
+        }
+        if (conflicts > 0) fail(conflicts + " double bookings " + stage);
+        return total;
+    }
+
+    // Rooms with empty indexes, for a second service over the same journal
+    private static List<Room> fresh(List<Room> roomList) {
+        List<Room> result = new ArrayList<>(roomList.size());
+        for (Room r : roomList) {
+            result.add(new Room(r.getType(), true, LocalDate.now().toString(), r.getPricePerNight(),
+                    r.getPlace(), r.getRoomNumber()));
+        }
+        return result;
+    }
+
+    private static void fail(String message) {
+        throw new IllegalStateException("FAILED: " + message);
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (java.util.stream.Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
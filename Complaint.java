@@ -2,24 +2,28 @@ public class Complaint {
     private int complaintId;
     private String username;
     private String contactNumber;
-    private String roomNumber;
+    private int roomNumber;
     private String complaintType;
     private int rating;
+    private int filedDay;
 
-    public Complaint(int complaintId, String username, String contactNumber, String roomNumber, 
-                     String complaintType, int rating) {
+    public Complaint(int complaintId, String username, String contactNumber, int roomNumber,
+                     String complaintType, int rating, int filedDay) {
         this.complaintId = complaintId;
         this.username = username;
         this.contactNumber = contactNumber;
         this.roomNumber = roomNumber;
         this.complaintType = complaintType;
         this.rating = rating;
+        this.filedDay = filedDay;
     }
 
     public int getComplaintId() { return complaintId; }
     public String getUsername() { return username; }
     public String getContactNumber() { return contactNumber; }
-    public String getRoomNumber() { return roomNumber; }
+    public int getRoomNumber() { return roomNumber; }
     public String getComplaintType() { return complaintType; }
     public int getRating() { return rating; }
-}
\ No newline at end of file
+    // Epoch day
+    public int getFiledDay() { return filedDay; }
+}
@@ -0,0 +1,180 @@
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// All complaints by ID, with secondary indexes by room, by user name and by the
+// words of the complaint type, plus rating aggregates per room and per type, kept
+// all-time and per filing month. Every add and remove updates all of them, so a
+// dashboard question such as the ten worst rooms this month reads one small map
+// instead of scanning every complaint.
+//
+// Writes synchronize on the store; reads take no lock. Aggregates are immutable
+// RatingStats swapped in by each write, so each one a reader sees is consistent.
+public class ComplaintStore {
+    private final ConcurrentNavigableMap<Integer, Complaint> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Integer, ConcurrentNavigableMap<Integer, Complaint>> byRoom = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentNavigableMap<Integer, Complaint>> byUser = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentNavigableMap<Integer, Complaint>> byWord = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, RatingStats> roomTotals = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RatingStats> typeTotals = new ConcurrentHashMap<>();
+    private final ConcurrentMap<YearMonth, ConcurrentMap<Integer, RatingStats>> roomsByMonth = new ConcurrentHashMap<>();
+    private final ConcurrentMap<YearMonth, ConcurrentMap<String, RatingStats>> typesByMonth = new ConcurrentHashMap<>();
+
+    public synchronized void add(Complaint c) {
+        if (byId.putIfAbsent(c.getComplaintId(), c) != null)
+            throw new IllegalStateException("Duplicate complaint ID: " + c.getComplaintId());
+        index(byRoom, c.getRoomNumber(), c);
+        index(byUser, c.getUsername(), c);
+        for (String word : words(c.getComplaintType())) index(byWord, word, c);
+        aggregate(c, 1);
+    }
+
+    public synchronized boolean remove(int complaintId) {
+        Complaint c = byId.remove(complaintId);
+        if (c == null) return false;
+        unindex(byRoom, c.getRoomNumber(), c);
+        unindex(byUser, c.getUsername(), c);
+        for (String word : words(c.getComplaintType())) unindex(byWord, word, c);
+        aggregate(c, -1);
+        return true;
+    }
+
+    // Complaints are filed under the user's name; returns how many were removed
+    public synchronized int removeByUser(String username) {
+        List<Complaint> filed = new ArrayList<>(findByUser(username));
+        for (Complaint c : filed) remove(c.getComplaintId());
+        return filed.size();
+    }
+
+    public Complaint findById(int complaintId) { return byId.get(complaintId); }
+    public Collection<Complaint> all() { return byId.values(); }
+    public Collection<Complaint> allAfter(int afterId) { return byId.tailMap(afterId, false).values(); }
+    public int size() { return byId.size(); }
+
+    public Collection<Complaint> findByRoom(int roomNumber) { return values(byRoom.get(roomNumber)); }
+    public Collection<Complaint> findByUser(String username) { return values(byUser.get(username)); }
+
+    // Newest first, complaints whose type contains every word of the query
+    public List<Complaint> search(String query, int limit) {
+        List<String> words = words(query);
+        List<Complaint> result = new ArrayList<>();
+        if (words.isEmpty()) return result;
+        // Walk the shortest posting list and probe the others
+        List<ConcurrentNavigableMap<Integer, Complaint>> postings = new ArrayList<>(words.size());
+        for (String word : words) {
+            ConcurrentNavigableMap<Integer, Complaint> posting = byWord.get(word);
+            if (posting == null) return result;
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Map::size));
+        for (Complaint c : postings.get(0).descendingMap().values()) {
+            boolean all = true;
+            for (int i = 1; i < postings.size() && all; i++) all = postings.get(i).containsKey(c.getComplaintId());
+            if (!all) continue;
+            result.add(c);
+            if (result.size() == limit) break;
+        }
+        return result;
+    }
+
+    public RatingStats roomStats(int roomNumber) {
+        return roomTotals.getOrDefault(roomNumber, RatingStats.EMPTY);
+    }
+
+    public RatingStats typeStats(String type) {
+        return typeTotals.getOrDefault(typeKey(type), RatingStats.EMPTY);
+    }
+
+    // The n rooms with the most complaints (ties: lowest mean rating first) filed in
+    // month, or all time when month is null
+    public List<Map.Entry<Integer, RatingStats>> topRooms(YearMonth month, int n) {
+        Map<Integer, RatingStats> stats = month == null ? roomTotals : roomsByMonth.get(month);
+        return top(stats == null ? Collections.emptyMap() : stats, n);
+    }
+
+    // The same for complaint types, which are compared ignoring case and extra spaces
+    public List<Map.Entry<String, RatingStats>> topTypes(YearMonth month, int n) {
+        Map<String, RatingStats> stats = month == null ? typeTotals : typesByMonth.get(month);
+        return top(stats == null ? Collections.emptyMap() : stats, n);
+    }
+
+    // Keeps the n worst in a bounded heap whose head is the best of them
+    private static <K extends Comparable<K>> List<Map.Entry<K, RatingStats>> top(Map<K, RatingStats> stats, int n) {
+        if (n < 1) throw new IllegalArgumentException("Limit must be at least 1!");
+        Comparator<Map.Entry<K, RatingStats>> worstFirst = Map.Entry.<K, RatingStats>comparingByValue(RatingStats.WORST_FIRST)
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<K, RatingStats>> heap = new PriorityQueue<>(Math.min(n, 1024) + 1, worstFirst.reversed());
+        for (Map.Entry<K, RatingStats> e : stats.entrySet()) {
+            if (heap.size() == n && worstFirst.compare(e, heap.peek()) >= 0) continue;
+            heap.add(Map.entry(e.getKey(), e.getValue()));
+            if (heap.size() > n) heap.poll();
+        }
+        List<Map.Entry<K, RatingStats>> result = new ArrayList<>(heap);
+        result.sort(worstFirst);
+        return result;
+    }
+
+    private void aggregate(Complaint c, int delta) {
+        String type = typeKey(c.getComplaintType());
+        update(roomTotals, c.getRoomNumber(), c.getRating(), delta);
+        update(typeTotals, type, c.getRating(), delta);
+        YearMonth month = YearMonth.from(LocalDate.ofEpochDay(c.getFiledDay()));
+        update(roomsByMonth.computeIfAbsent(month, m -> new ConcurrentHashMap<>()), c.getRoomNumber(), c.getRating(), delta);
+        update(typesByMonth.computeIfAbsent(month, m -> new ConcurrentHashMap<>()), type, c.getRating(), delta);
+    }
+
+    // Groups that drop to no complaints are removed
+    private static <K> void update(ConcurrentMap<K, RatingStats> stats, K key, int rating, int delta) {
+        stats.compute(key, (k, s) -> {
+            RatingStats updated = delta > 0 ? (s == null ? RatingStats.EMPTY : s).plus(rating) : s.minus(rating);
+            return updated.getCount() == 0 ? null : updated;
+        });
+    }
+
+    private static <K> void index(ConcurrentMap<K, ConcurrentNavigableMap<Integer, Complaint>> index, K key, Complaint c) {
+        index.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>()).put(c.getComplaintId(), c);
+    }
+
+    private static <K> void unindex(ConcurrentMap<K, ConcurrentNavigableMap<Integer, Complaint>> index, K key, Complaint c) {
+        index.computeIfPresent(key, (k, complaints) -> {
+            complaints.remove(c.getComplaintId());
+            return complaints.isEmpty() ? null : complaints;
+        });
+    }
+
+    private static Collection<Complaint> values(ConcurrentNavigableMap<Integer, Complaint> complaints) {
+        return complaints == null ? Collections.emptyList() : complaints.values();
+    }
+
+    // "Noisy  AC" and "noisy ac" are the same type
+    static String typeKey(String type) {
+        List<String> words = words(type);
+        return words.isEmpty() ? type.trim().toLowerCase(Locale.ROOT) : String.join(" ", words);
+    }
+
+    // Lower-case runs of letters and digits
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) start = i;
+            if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
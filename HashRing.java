@@ -0,0 +1,53 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Consistent hashing of keys (hotel places) onto nodes. Each node is hashed onto a
+// 64-bit ring at VIRTUAL_NODES points, and a key belongs to the first node point at
+// or after its own hash. Adding or removing a node only moves the keys between
+// that node's points and their predecessors, about 1/N of them, and every process
+// built from the same node list agrees on the owner of every key. Immutable.
+public class HashRing {
+    static final int VIRTUAL_NODES = 160;
+
+    private final List<String> nodes;
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public HashRing(Collection<String> nodes) {
+        if (nodes.isEmpty()) throw new IllegalArgumentException("At least one node is required!");
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        for (String node : this.nodes) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) ring.put(hash(node + "#" + i), node);
+        }
+    }
+
+    public String nodeFor(String key) {
+        Map.Entry<Long, String> owner = ring.ceilingEntry(hash(key));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so
+    // similar names ("node1", "node2") land far apart
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,104 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Occupancy, ADR, RevPAR and revenue over a date range, per day, week (from Monday),
+// month or the whole range, and per room type, place or for all rooms together.
+//
+// The snapshot's stays are split into chunks scanned in parallel on the common
+// fork-join pool. Each chunk adds its nights into its own flat array of
+// (period, group) counters, and the arrays are summed at the end, so threads
+// never share a counter.
+public class HotelAnalytics {
+    public enum Period { DAY, WEEK, MONTH, TOTAL }
+    public enum GroupBy { NONE, TYPE, PLACE }
+
+    private static final int MIN_CHUNK = 1 << 16;
+
+    private HotelAnalytics() {}
+
+    // Nights in [fromDay, toDay); one row per period and group, in date order
+    public static List<AnalyticsRow> report(OccupancySnapshot s, int fromDay, int toDay, Period period,
+                                            GroupBy groupBy) {
+        if (toDay <= fromDay) throw new IllegalArgumentException("End date must be after start date!");
+        int days = toDay - fromDay;
+
+        // Period index of every day in the range, and each period's first day
+        int[] periodOfDay = new int[days];
+        List<LocalDate> periodStarts = new ArrayList<>();
+        LocalDate date = LocalDate.ofEpochDay(fromDay);
+        for (int d = 0; d < days; d++, date = date.plusDays(1)) {
+            if (d == 0 || startsPeriod(date, period)) periodStarts.add(date);
+            periodOfDay[d] = periodStarts.size() - 1;
+        }
+        int periods = periodStarts.size();
+
+        String[] groupNames = groupBy == GroupBy.TYPE ? s.types : groupBy == GroupBy.PLACE ? s.places : new String[] { "All" };
+        int groups = groupNames.length;
+        int[] groupOfRoom = groupBy == GroupBy.TYPE ? s.roomType : groupBy == GroupBy.PLACE ? s.roomPlace
+                : new int[s.roomCount()];
+
+        // Sold nights and revenue, interleaved per (period, group) cell
+        int chunks = Math.max(1, Math.min(s.size / MIN_CHUNK, ForkJoinPool.getCommonPoolParallelism() * 4));
+        long[] totals = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> scan(s, (int) ((long) s.size * c / chunks), (int) ((long) s.size * (c + 1) / chunks),
+                        fromDay, toDay, periodOfDay, groupOfRoom, groups, new long[2 * periods * groups]))
+                .reduce(HotelAnalytics::add)
+                .orElseGet(() -> new long[2 * periods * groups]);
+
+        int[] roomsInGroup = new int[groups];
+        for (int g : groupOfRoom) roomsInGroup[g]++;
+        int[] daysInPeriod = new int[periods];
+        for (int p : periodOfDay) daysInPeriod[p]++;
+
+        List<AnalyticsRow> rows = new ArrayList<>(periods * groups);
+        for (int p = 0; p < periods; p++) {
+            for (int g = 0; g < groups; g++) {
+                int cell = 2 * (p * groups + g);
+                rows.add(new AnalyticsRow(periodStarts.get(p), groupNames[g],
+                        (long) roomsInGroup[g] * daysInPeriod[p], totals[cell], totals[cell + 1]));
+            }
+        }
+        return rows;
+    }
+
+    private static boolean startsPeriod(LocalDate date, Period period) {
+        switch (period) {
+            case DAY: return true;
+            case WEEK: return date.getDayOfWeek() == DayOfWeek.MONDAY;
+            case MONTH: return date.getDayOfMonth() == 1;
+            default: return false;
+        }
+    }
+
+    // Adds the nights of stays [from, to) that fall inside the range into cells.
+    // A stay of n nights (at least one) earns bill / n per night, with the remainder
+    // cents going to its first nights so the parts add up to the bill exactly.
+    private static long[] scan(OccupancySnapshot s, int from, int to, int fromDay, int toDay,
+                               int[] periodOfDay, int[] groupOfRoom, int groups, long[] cells) {
+        for (int i = from; i < to; i++) {
+            int in = s.checkIn[i];
+            int nights = Math.max(1, s.checkOut[i] - in);
+            int first = Math.max(in, fromDay);
+            int last = Math.min(in + nights, toDay);
+            if (first >= last) continue;
+            int group = groupOfRoom[s.room[i]];
+            long perNight = s.billCents[i] / nights;
+            long extra = s.billCents[i] % nights;
+            for (int day = first; day < last; day++) {
+                int cell = 2 * (periodOfDay[day - fromDay] * groups + group);
+                cells[cell]++;
+                cells[cell + 1] += day - in < extra ? perNight + 1 : perNight;
+            }
+        }
+        return cells;
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) a[i] += b[i];
+        return a;
+    }
+}
@@ -0,0 +1,354 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Micro-benchmarks for the booking, availability and reporting paths over a
+// synthetic hotel. Dependency-free so it runs straight from javac output:
+//
+//   java HotelBenchmark [rooms] [reservations] [seed]
+//
+// Each operation gets a warm-up pass, then a measured pass reporting throughput,
+// mean / p50 / p99 latency and bytes allocated per operation on the calling thread.
+public class HotelBenchmark {
+    private static final String[] TYPES = { "Single", "Double", "Suite" };
+    private static final double[] PRICES = { 50.0, 80.0, 150.0 };
+    private static final long[] PRICE_CENTS = { 5_000, 8_000, 15_000 };
+    private static final int INVOICE_BATCH = 1_000;
+    private static final String[] PLACES = { "Downtown", "Airport", "Beach", "Old Town" };
+    // Rooms anchor their calendars at today, so the bookings start there too
+    private static final LocalDate START = LocalDate.now();
+    private static final int HORIZON_DAYS = 730;
+    private static final int ANALYTICS_STAYS = 2_000_000;
+    private static final int COMPLAINTS = 100_000;
+    // Password, name, email, date, card number, CVV, expiry, phone
+    private static final String[] VALID_INPUTS = { "Secret123", "Jane Doe", "jane.doe@example.com",
+            "2025-05-01", "4111111111111111", "123", "12/28", "5551234567" };
+
+    // Keeps results live so the JIT cannot drop the measured work
+    private static volatile long sink;
+
+    interface Op {
+        long run(int i);
+    }
+
+    private final RoomRepository rooms = new RoomRepository();
+    private final ReservationRepository reservations = new ReservationRepository(rooms);
+    private final IdGenerator reservationIds = new IdGenerator();
+    private final List<Room> roomList = new ArrayList<>();
+    private final Random random;
+    private BookingEngine engine;
+    private HotelJournal journal;
+    private PricingEngine pricing;
+    private final BookingEventBus events = new BookingEventBus(8192);
+
+    private HotelBenchmark(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int reservationCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        HotelBenchmark bench = new HotelBenchmark(seed);
+        Path dataDir = Files.createTempDirectory("hotel-bench");
+        try {
+            bench.populate(roomCount, reservationCount, dataDir);
+            System.out.printf("rooms=%d reservations=%d java=%s%n",
+                    roomCount, bench.reservations.size(), System.getProperty("java.version"));
+            System.out.printf("%-26s %14s %12s %12s %12s %14s%n",
+                    "operation", "ops/s", "mean ns", "p50 ns", "p99 ns", "alloc B/op");
+            bench.runAll();
+        } finally {
+            bench.journal.close();
+            deleteRecursively(dataDir);
+        }
+    }
+
+    // Rooms cycle through types and places; check-ins are skewed towards the near
+    // future (square of a uniform draw) with stays of 1-7 nights.
+    private void populate(int roomCount, int reservationCount, Path dataDir) {
+        for (int i = 0; i < roomCount; i++) {
+            int t = i % TYPES.length;
+            Room room = new Room(TYPES[t], true, START.toString(), PRICES[t], PLACES[i % PLACES.length], 100 + i);
+            rooms.add(room);
+            roomList.add(room);
+        }
+        int start = Reservation.toEpochDay(START);
+        pricing = new PricingEngine(rooms, HotelService.SAMPLE_PLACE_FACTORS, start, HORIZON_DAYS);
+        reservations.addListener(pricing);
+        for (int i = 0; i < reservationCount; i++) {
+            Room room = roomList.get(random.nextInt(roomCount));
+            double u = random.nextDouble();
+            int checkIn = start + (int) (u * u * HORIZON_DAYS);
+            int checkOut = checkIn + 1 + random.nextInt(7);
+            if (room.getReservationIndex().overlaps(checkIn, checkOut, -1)) continue;
+            Reservation r = new Reservation(reservationIds.next(), checkIn, checkOut,
+                    room.getRoomNumber(), pricing.quote(room, checkIn, checkOut), "U" + (1 + random.nextInt(10_000)));
+            reservations.add(r);
+        }
+        journal = new HotelJournal(dataDir);
+        journal.load(null);
+        engine = new BookingEngine(rooms, reservations, reservationIds, journal,
+                new ReservationArchive(dataDir.resolve("archive")), pricing, events);
+    }
+
+    private void runAll() {
+        int start = Reservation.toEpochDay(START);
+        int n = roomList.size();
+
+        int[] probeRoom = new int[1 << 16];
+        int[] probeDay = new int[1 << 16];
+        for (int i = 0; i < probeRoom.length; i++) {
+            probeRoom[i] = random.nextInt(n);
+            probeDay[i] = start + random.nextInt(HORIZON_DAYS);
+        }
+        int mask = probeRoom.length - 1;
+
+        measure("isRoomAvailable", 200_000, 1_000_000, i -> {
+            int k = i & mask;
+            return roomList.get(probeRoom[k]).getReservationIndex()
+                    .overlaps(probeDay[k], probeDay[k] + 3, -1) ? 1 : 0;
+        });
+
+        measure("getEarliestAvailableDate", 20_000, 200_000, i ->
+                HotelService.getEarliestAvailableDate(roomList.get(probeRoom[i & mask])).toEpochDay());
+
+        RoomSearch search = new RoomSearch(rooms);
+        measure("searchRooms", 20_000, 200_000, i -> {
+            int k = i & mask;
+            return search.search(TYPES[i % TYPES.length], PLACES[(i / TYPES.length) % PLACES.length],
+                    0.0, Double.MAX_VALUE, probeDay[k], probeDay[k] + 5, 10).size();
+        });
+
+        Reservation sample = reservations.all().iterator().next();
+        measure("Reservation.calculateBill", 1_000_000, 10_000_000, i -> {
+            sample.calculateBill(PRICE_CENTS[i % PRICE_CENTS.length]);
+            return sample.getBillCents();
+        });
+
+        // A batch of invoice texts plus their revenue total per op: the old double and
+        // String.format rendering against long cents appended by Money
+        List<Invoice> invoices = new ArrayList<>(INVOICE_BATCH);
+        for (Reservation r : reservations.all()) {
+            invoices.add(new Invoice(r, rooms.findByNumber(r.getRoomNumber())));
+            if (invoices.size() == INVOICE_BATCH) break;
+        }
+        measure("invoices (double, format)", 20, 200, i -> {
+            double revenue = 0;
+            long length = 0;
+            for (Invoice inv : invoices) {
+                double amount = inv.getAmountCents() / 100.0;
+                length += String.format(
+                        "Invoice - ID: %d%nCheck-in: %s%nCheck-out: %s%nRoom: %d%nType: %s%nAmount: $%.2f",
+                        inv.getReservationId(), inv.getCheckIn(), inv.getCheckOut(),
+                        inv.getRoomNumber(), inv.getRoomType(), amount).length();
+                revenue += amount;
+            }
+            return length + (long) revenue;
+        });
+        StringBuilder invoiceText = new StringBuilder(256);
+        measure("invoices (Money)", 200, 2_000, i -> {
+            long revenueCents = 0;
+            long length = 0;
+            for (Invoice inv : invoices) {
+                invoiceText.setLength(0);
+                length += inv.appendTo(invoiceText).length();
+                revenueCents += inv.getAmountCents();
+            }
+            return length + revenueCents;
+        });
+
+        // A 14-night stay priced in every room, as a search results page would
+        measure("quote 14 nights x rooms", 200, 2_000, i -> {
+            int checkIn = probeDay[i & mask];
+            double total = 0;
+            for (Room room : roomList) total += pricing.quote(room, checkIn, checkIn + 14);
+            return (long) total;
+        });
+
+        // The instrumentation around each service call: a clock read, a histogram
+        // update and a second clock read (nothing with -Dhotel.metrics=false)
+        OperationStats stats = new OperationStats("bench");
+        measure("metrics begin/done", 1_000_000, 10_000_000, i -> {
+            long t = stats.begin();
+            stats.done(t);
+            return t;
+        });
+
+        // One registration plus one payment worth of field checks per op
+        measure("validate (String.matches)", 20_000, 200_000, i -> {
+            int ok = 0;
+            String password = VALID_INPUTS[0];
+            if (password.length() >= 6 && password.length() <= 20 && password.matches(".*[a-z].*")
+                    && password.matches(".*[A-Z].*") && password.matches(".*\\d.*")) ok++;
+            if (VALID_INPUTS[1].matches("[a-zA-Z ]+")) ok++;
+            if (VALID_INPUTS[2].matches("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$")) ok++;
+            if (VALID_INPUTS[3].matches("\\d{4}-\\d{2}-\\d{2}")) ok++;
+            if (VALID_INPUTS[4].matches("\\d{16}")) ok++;
+            if (VALID_INPUTS[5].matches("\\d{3}")) ok++;
+            if (VALID_INPUTS[6].matches("\\d{2}/\\d{2}")) ok++;
+            if (VALID_INPUTS[7].matches("\\d{10}")) ok++;
+            return ok;
+        });
+        measure("validate (Validators)", 200_000, 2_000_000, i -> {
+            int ok = 0;
+            if (Validators.isStrongPassword(VALID_INPUTS[0])) ok++;
+            if (Validators.isName(VALID_INPUTS[1])) ok++;
+            if (Validators.isEmail(VALID_INPUTS[2])) ok++;
+            if (Validators.isIsoDate(VALID_INPUTS[3])) ok++;
+            if (Validators.isCardNumber(VALID_INPUTS[4])) ok++;
+            if (Validators.isCvv(VALID_INPUTS[5])) ok++;
+            if (Validators.isExpiry(VALID_INPUTS[6])) ok++;
+            if (Validators.isPhone(VALID_INPUTS[7])) ok++;
+            return ok;
+        });
+
+        int statusOps = Math.max(5, 2_000_000 / Math.max(1, reservations.size() + n));
+        // The status data alone, without formatting the report text
+        measure("roomStatus", statusOps * 10, statusOps * 50, i ->
+                HotelService.roomStatus(rooms.all(), LocalDate.ofEpochDay(probeDay[i & mask])).size());
+        // The full status report, a page at a time through the report writer into a discarding sink
+        ReportWriter report = new ReportWriter(Writer.nullWriter());
+        measure("viewRoomStatus", statusOps, statusOps * 5, i -> {
+            LocalDate date = LocalDate.ofEpochDay(probeDay[i & mask]);
+            return Reports.writeAll(report, (cursor, limit) -> HotelService.roomStatus(rooms.all(), date, cursor, limit),
+                    Reports::roomStatus, 100);
+        });
+
+        // Copying every stay into primitive columns, then a month x room type report
+        // over the horizon from those columns alone
+        measure("analytics snapshot", statusOps, statusOps * 5, i ->
+                OccupancySnapshot.capture(rooms.all(), reservations.all(), null).size());
+        OccupancySnapshot live = OccupancySnapshot.capture(rooms.all(), reservations.all(), null);
+        measure("analytics month x type", statusOps, statusOps * 5, i ->
+                HotelAnalytics.report(live, start, start + HORIZON_DAYS, HotelAnalytics.Period.MONTH,
+                        HotelAnalytics.GroupBy.TYPE).size());
+        // Years of checked-out history: the same scan over many more stays
+        OccupancySnapshot history = syntheticHistory(start - 5 * 365, 5 * 365, ANALYTICS_STAYS);
+        measure("analytics " + ANALYTICS_STAYS / 1_000_000 + "M stays", 2, 10, i ->
+                HotelAnalytics.report(history, start - 5 * 365, start, HotelAnalytics.Period.MONTH,
+                        HotelAnalytics.GroupBy.PLACE).size());
+
+        // Ten worst rooms of a month: the store's aggregates against a scan of every complaint
+        ComplaintStore complaintStore = new ComplaintStore();
+        String[] complaintTypes = { "Noisy AC", "Dirty towels", "Slow wifi", "Noise", "Broken shower" };
+        for (int i = 1; i <= COMPLAINTS; i++) {
+            complaintStore.add(new Complaint(i, "User " + random.nextInt(1_000), "1234567890",
+                    roomList.get(random.nextInt(n)).getRoomNumber(), complaintTypes[i % complaintTypes.length],
+                    1 + random.nextInt(5), start - 365 + random.nextInt(365)));
+        }
+        YearMonth month = YearMonth.from(START.minusMonths(1));
+        measure("complaints top 10 (scan)", 20, 100, i -> {
+            Map<Integer, RatingStats> byRoom = new HashMap<>();
+            for (Complaint c : complaintStore.all()) {
+                if (!YearMonth.from(LocalDate.ofEpochDay(c.getFiledDay())).equals(month)) continue;
+                byRoom.merge(c.getRoomNumber(), RatingStats.EMPTY.plus(c.getRating()), (a, b) -> a.plus(c.getRating()));
+            }
+            List<Map.Entry<Integer, RatingStats>> rows = new ArrayList<>(byRoom.entrySet());
+            rows.sort(Map.Entry.comparingByValue(RatingStats.WORST_FIRST));
+            return rows.subList(0, Math.min(10, rows.size())).size();
+        });
+        measure("complaints top 10 (index)", 2_000, 20_000, i -> complaintStore.topRooms(month, 10).size());
+
+        // What a booking thread pays to hand an event to the ring; two consumers drain it
+        // on their own threads
+        long[] consumed = new long[2];
+        BookingEventBus.Subscription housekeeping = events.subscribe("housekeeping", (e, seq, end) -> consumed[0]++);
+        BookingEventBus.Subscription billing = events.subscribe("billing", (e, seq, end) -> consumed[1] += e.getBillCents());
+        measure("publish event", 200_000, 2_000_000, i -> {
+            events.publishReservation(BookingEvent.Type.RESERVED, sample);
+            return 1;
+        });
+
+        // Bookings beyond the populated horizon so most succeed; includes the journal fsync
+        int[] day = { start + HORIZON_DAYS + 10 };
+        measure("makeReservation", 200, 2_000, i -> {
+            String type = TYPES[i % TYPES.length];
+            LocalDate checkIn = LocalDate.ofEpochDay(day[0] + (i / n) * 3);
+            try {
+                return engine.reserve("U002", type, checkIn, checkIn.plusDays(2), false).getReservationId();
+            } catch (IllegalArgumentException e) {
+                day[0] += 3;
+                return 0;
+            }
+        });
+        housekeeping.close();
+        billing.close();
+        System.out.printf("events published=%d housekeeping=%d billing lag=%d%n",
+                events.getCursor() + 1, consumed[0], billing.getLag());
+    }
+
+    // Stays of 1-7 nights at random in the benchmark's rooms over [fromDay, fromDay + days)
+    private OccupancySnapshot syntheticHistory(int fromDay, int days, int stays) {
+        OccupancySnapshot rooms = OccupancySnapshot.capture(roomList, List.of(), null);
+        int[] room = new int[stays];
+        int[] checkIn = new int[stays];
+        int[] checkOut = new int[stays];
+        long[] billCents = new long[stays];
+        for (int i = 0; i < stays; i++) {
+            room[i] = random.nextInt(rooms.roomCount());
+            checkIn[i] = fromDay + random.nextInt(days);
+            checkOut[i] = checkIn[i] + 1 + random.nextInt(7);
+            billCents[i] = (checkOut[i] - checkIn[i]) * PRICE_CENTS[rooms.roomType[room[i]]];
+        }
+        return new OccupancySnapshot(rooms.types, rooms.places, rooms.roomType, rooms.roomPlace,
+                room, checkIn, checkOut, billCents, stays);
+    }
+
+    private static void measure(String name, int warmupOps, int ops, Op op) {
+        for (int i = 0; i < warmupOps; i++) sink += op.run(i);
+
+        // Latency is sampled on a subset so the timer calls don't dominate cheap ops
+        int sampleEvery = Math.max(1, ops / 100_000);
+        long[] samples = new long[(ops + sampleEvery - 1) / sampleEvery];
+        int sampled = 0;
+
+        long allocBefore = allocatedBytes();
+        long begin = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            if (i % sampleEvery == 0) {
+                long t0 = System.nanoTime();
+                sink += op.run(i);
+                samples[sampled++] = System.nanoTime() - t0;
+            } else {
+                sink += op.run(i);
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        long allocated = allocatedBytes() - allocBefore;
+
+        Arrays.sort(samples, 0, sampled);
+        System.out.printf("%-26s %14.0f %12.1f %12d %12d %14.1f%n",
+                name, ops * 1e9 / elapsed, (double) elapsed / ops,
+                samples[sampled / 2], samples[Math.min(sampled - 1, (int) (sampled * 0.99))],
+                allocated < 0 ? Double.NaN : (double) allocated / ops);
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (java.util.stream.Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(java.util.Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
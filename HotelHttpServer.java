@@ -0,0 +1,616 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// JSON-over-HTTP front end for HotelService. Clients log in once for a session token
+// and send it as a Bearer token; HTTP Basic (user ID and password) still works but
+// pays for a password hash on every request. Requests run one per virtual thread
+// where the runtime has them, otherwise on a fixed platform pool. Responses always
+// carry a Content-Length so connections are kept alive between requests.
+//
+//   POST   /login                        {"userId","password"} -> {"token",...}, no auth needed
+//   POST   /logout                       ends the Bearer session
+//   GET    /rooms/status?date=YYYY-MM-DD
+//   GET    /rooms/search?checkIn=&checkOut=[&type=&place=&minPrice=&maxPrice=&limit=]
+//   POST   /reservations                 {"checkIn","checkOut","roomType"[,"userId" admin only]}
+//   POST   /reservations/group           {"checkIn","checkOut","count"[,"type","place","maxPrice"]}
+//   PUT    /reservations/{id}            {"checkIn","checkOut"}
+//   DELETE /reservations/{id}
+//   GET    /reservations/{id}/checkout   bill for the reservation
+//   POST   /reservations/{id}/checkout   {"cardHolder","cardNumber","cvv","expiry"}
+//   POST   /complaints                   {"contact","room","type","rating"}
+//   GET    /complaints/top?by=room|type[&month=YYYY-MM&limit=10]   admin only; all time without month
+//   GET    /complaints/search?q=[&limit=20]                        admin only; matches words of the type
+//   GET    /invoices/{id}?userId=U003    admin only
+//   GET    /reports/{history|upcoming|rooms|complaints}?[cursor=&limit=&userId=&date=]
+//                                         one page of text rows; X-Next-Cursor resumes after it
+//   GET    /analytics?from=&to=[&period=day|week|month|total&groupBy=none|type|place]
+//                                         admin only; nights in [from, to)
+//   GET    /metrics                      admin only; per-operation calls, failures and latency percentiles
+//
+// A partition node serves several places from one port, each with its own
+// HotelService under /places/{place}/ followed by the paths above. HotelRouter
+// sends each place's requests to the node that owns it.
+public class HotelHttpServer {
+    static {
+        // Headers and body go out in separate writes; without TCP_NODELAY, Nagle plus
+        // the client's delayed ACK stalls every keep-alive response by ~40 ms
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final int MAX_REPORT_PAGE = 1000;
+
+    private final HotelService service;
+    // Path before the endpoints above: "" or /places/{place}
+    private final String prefix;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // An error with the HTTP status to report it as
+    private static class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    public HotelHttpServer(HotelService service, int port) throws IOException {
+        this(service, "", HttpServer.create(new InetSocketAddress(port), 1024), newRequestExecutor());
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    // One partition per place on a single port
+    public HotelHttpServer(Map<String, HotelService> places, int port) throws IOException {
+        this(null, "", HttpServer.create(new InetSocketAddress(port), 1024), newRequestExecutor());
+        server.setExecutor(executor);
+        String served = String.join(", ", places.keySet());
+        server.createContext("/", exchange -> {
+            readBody(exchange);
+            respond(exchange, 404, error("This node serves /places/{place}/... for: " + served));
+        });
+        for (Map.Entry<String, HotelService> place : places.entrySet()) {
+            HotelHttpServer partition = new HotelHttpServer(place.getValue(), "/places/" + place.getKey(), server, executor);
+            server.createContext(partition.prefix + "/", partition::handle);
+        }
+    }
+
+    private HotelHttpServer(HotelService service, String prefix, HttpServer server, ExecutorService executor) {
+        this.service = service;
+        this.prefix = prefix;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    // Virtual threads need Java 21; looked up reflectively so the code still builds on 17
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(16, 4 * Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int status;
+        String body;
+        try {
+            String requestBody = readBody(exchange);
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().substring(prefix.length()).split("/");
+            Object[] result;
+            if (path.length == 2 && path[1].equals("login") && method.equals("POST")) {
+                result = ok(login(Json.parseObject(requestBody)));
+            } else {
+                User user = authenticate(exchange);
+                if (path.length == 2 && path[1].equals("logout") && method.equals("POST")) {
+                    String token = bearerToken(exchange);
+                    if (token != null) service.closeSession(token);
+                    result = new Object[] { 204, "" };
+                } else if (path.length == 3 && path[1].equals("reports") && method.equals("GET")) {
+                    streamReport(exchange, user, path[2], query(exchange.getRequestURI().getRawQuery()));
+                    return;
+                } else {
+                    result = route(method, path, user, query(exchange.getRequestURI().getRawQuery()), requestBody);
+                }
+            }
+            status = (Integer) result[0];
+            body = (String) result[1];
+        } catch (HttpError e) {
+            status = e.status;
+            body = error(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error("Internal error: " + e.getMessage());
+        }
+        respond(exchange, status, body);
+    }
+
+    // Returns {status, json body}
+    private Object[] route(String method, String[] path, User user, Map<String, String> query, String body) {
+        // path[0] is the empty segment before the leading slash
+        String resource = path.length > 1 ? path[1] : "";
+        switch (resource) {
+            case "rooms":
+                if (path.length == 3 && path[2].equals("status") && method.equals("GET")) {
+                    String date = query.get("date");
+                    LocalDate day = date == null ? HotelService.CURRENT_DATE : HotelService.parseDate(date);
+                    return ok(roomStatusJson(service.roomStatus(day)));
+                }
+                if (path.length == 3 && path[2].equals("search") && method.equals("GET")) return ok(search(query));
+                break;
+            case "reservations":
+                if (path.length == 2 && method.equals("POST")) return created(reserve(user, Json.parseObject(body)));
+                if (path.length == 3 && path[2].equals("group") && method.equals("POST"))
+                    return created(reserveGroup(user, Json.parseObject(body)));
+                if (path.length >= 3) {
+                    int id = parseId(path[2]);
+                    if (path.length == 3 && method.equals("PUT")) return changeDates(user, id, Json.parseObject(body));
+                    if (path.length == 3 && method.equals("DELETE")) {
+                        service.cancel(user, id);
+                        return new Object[] { 204, "" };
+                    }
+                    if (path.length == 4 && path[3].equals("checkout")) {
+                        if (method.equals("GET")) return ok(invoiceJson(service.checkoutQuote(user, id)));
+                        if (method.equals("POST")) return ok(checkout(user, id, Json.parseObject(body)));
+                    }
+                }
+                break;
+            case "complaints":
+                if (path.length == 2 && method.equals("POST")) return created(complaint(user, Json.parseObject(body)));
+                if (path.length == 3 && method.equals("GET")) {
+                    requireAdmin(user);
+                    if (path[2].equals("top")) return ok(topComplaints(query));
+                    if (path[2].equals("search")) return ok(searchComplaints(query));
+                }
+                break;
+            case "analytics":
+                if (path.length == 2 && method.equals("GET")) {
+                    requireAdmin(user);
+                    return ok(analytics(query));
+                }
+                break;
+            case "metrics":
+                if (path.length == 2 && method.equals("GET")) {
+                    requireAdmin(user);
+                    return ok(metricsJson(service.metrics()));
+                }
+                break;
+            case "invoices":
+                if (path.length == 3 && method.equals("GET")) {
+                    requireAdmin(user);
+                    return ok(invoiceJson(service.invoice(required(query, "userId"), parseId(path[2]))));
+                }
+                break;
+        }
+        throw new HttpError(404, "No such endpoint: " + method + " " + String.join("/", path));
+    }
+
+    // Rows are rendered straight into the chunked response body, so a page costs
+    // the same memory whatever its size; errors surface before any header is sent
+    private void streamReport(HttpExchange exchange, User user, String report, Map<String, String> query)
+            throws IOException {
+        String cursor = query.get("cursor");
+        String limitText = query.get("limit");
+        int limit = Math.min(MAX_REPORT_PAGE, limitText == null ? 100 : parseInt(limitText, "Limit"));
+        String userId = query.get("userId");
+        if (userId != null && !userId.equals(user.getUserId())) requireAdmin(user);
+        switch (report) {
+            case "history":
+                sendReport(exchange, userId == null ? service.history(user, cursor, limit)
+                        : service.historyFor(userId, cursor, limit), Reports::booking);
+                return;
+            case "upcoming":
+                sendReport(exchange, userId == null ? service.upcoming(user, cursor, limit)
+                        : service.upcomingFor(userId, cursor, limit), Reports::upcoming);
+                return;
+            case "rooms":
+                String date = query.get("date");
+                LocalDate day = date == null ? HotelService.CURRENT_DATE : HotelService.parseDate(date);
+                sendReport(exchange, service.roomStatus(day, cursor, limit), Reports::roomStatus);
+                return;
+            case "complaints":
+                requireAdmin(user);
+                sendReport(exchange, service.complaints(cursor, limit), Reports::complaint);
+                return;
+            default:
+                throw new HttpError(404, "No such report: " + report);
+        }
+    }
+
+    private static <T> void sendReport(HttpExchange exchange, Page<T> page, Reports.RowRenderer<T> renderer)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        if (page.hasMore()) exchange.getResponseHeaders().set("X-Next-Cursor", page.getNextCursor());
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer body = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+            ReportWriter out = new ReportWriter(body);
+            for (T row : page.getRows()) renderer.render(out, row);
+            out.flush();
+        }
+    }
+
+    private String login(Map<String, String> body) {
+        String userId = required(body, "userId");
+        String token;
+        try {
+            token = service.openSession(userId, required(body, "password"));
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(401, e.getMessage());
+        }
+        User user = service.resolveSession(token);
+        return new Json().beginObject()
+                .field("token", token)
+                .field("userId", user.getUserId())
+                .field("admin", user.isAdmin())
+                .field("idleTimeoutSeconds", service.sessionIdleMillis() / 1000)
+                .endObject().toString();
+    }
+
+    private String reserve(User user, Map<String, String> body) {
+        LocalDate checkIn = HotelService.parseCheckIn(required(body, "checkIn"));
+        LocalDate checkOut = HotelService.parseCheckOut(required(body, "checkOut"), checkIn);
+        String roomType = required(body, "roomType");
+        HotelService.validateRoomType(roomType); // Rejects unknown types before booking
+        String userId = body.get("userId");
+        Reservation r;
+        if (userId == null || userId.equals(user.getUserId())) {
+            r = service.reserve(user, checkIn, checkOut, roomType);
+        } else {
+            requireAdmin(user);
+            r = service.bookForUser(userId, checkIn, checkOut, roomType);
+        }
+        return reservationJson(new Json(), r).toString();
+    }
+
+    private String search(Map<String, String> query) {
+        LocalDate checkIn = HotelService.parseDate(required(query, "checkIn"));
+        LocalDate checkOut = HotelService.parseDate(required(query, "checkOut"));
+        String limit = query.get("limit");
+        List<Room> rooms = service.searchRooms(query.get("type"), query.get("place"),
+                optionalPrice(query, "minPrice"), optionalPrice(query, "maxPrice"),
+                checkIn, checkOut, limit == null ? 20 : parseInt(limit, "Limit"));
+        Json json = new Json().beginArray();
+        for (Room r : rooms) {
+            json.beginObject()
+                    .field("room", r.getRoomNumber())
+                    .field("type", r.getType())
+                    .field("place", r.getPlace())
+                    .field("pricePerNight", r.getPricePerNight())
+                    .moneyField("stayPrice", service.quoteStay(r, checkIn, checkOut))
+                    .endObject();
+        }
+        return json.endArray().toString();
+    }
+
+    private String analytics(Map<String, String> query) {
+        List<AnalyticsRow> rows = service.analytics(parseAnyDate(required(query, "from")),
+                parseAnyDate(required(query, "to")),
+                option(HotelAnalytics.Period.class, query.getOrDefault("period", "total"), "period"),
+                option(HotelAnalytics.GroupBy.class, query.getOrDefault("groupBy", "none"), "groupBy"));
+        Json json = new Json().beginArray();
+        for (AnalyticsRow a : rows) analyticsJson(json, a);
+        return json.endArray().toString();
+    }
+
+    static Json analyticsJson(Json json, AnalyticsRow a) {
+        return json.beginObject()
+                .field("periodStart", a.getPeriodStart().toString())
+                .field("group", a.getGroup())
+                .field("roomNights", a.getRoomNights())
+                .field("soldNights", a.getSoldNights())
+                .field("occupancyPercent", a.getOccupancyBasisPoints() / 100.0)
+                .moneyField("adr", a.getAdrCents())
+                .moneyField("revPar", a.getRevParCents())
+                .moneyField("revenue", a.getRevenueCents())
+                .endObject();
+    }
+
+    private static String metricsJson(HotelMetrics metrics) {
+        Json json = new Json().beginArray();
+        for (OperationStats op : metrics.all()) {
+            json.beginObject()
+                    .field("operation", op.getName())
+                    .field("calls", op.getCalls())
+                    .field("failures", op.getFailures())
+                    .field("meanMicros", op.getMeanMicros())
+                    .field("p50Micros", op.getP50Micros())
+                    .field("p99Micros", op.getP99Micros())
+                    .field("maxMicros", op.getMaxMicros())
+                    .name("failureReasons").beginArray();
+            for (String reason : op.getFailureReasons()) json.value(reason);
+            json.endArray().endObject();
+        }
+        return json.endArray().toString();
+    }
+
+    private String reserveGroup(User user, Map<String, String> body) {
+        LocalDate checkIn = HotelService.parseCheckIn(required(body, "checkIn"));
+        LocalDate checkOut = HotelService.parseCheckOut(required(body, "checkOut"), checkIn);
+        List<Reservation> booked = service.reserveGroup(user, body.get("type"), body.get("place"),
+                optionalPrice(body, "maxPrice"), checkIn, checkOut, parseInt(required(body, "count"), "Room count"));
+        Json json = new Json().beginArray();
+        for (Reservation r : booked) reservationJson(json, r);
+        return json.endArray().toString();
+    }
+
+    private Object[] changeDates(User user, int id, Map<String, String> body) {
+        LocalDate checkIn = HotelService.parseCheckIn(required(body, "checkIn"));
+        LocalDate checkOut = HotelService.parseCheckOut(required(body, "checkOut"), checkIn);
+        List<Reservation> conflicts = service.changeDates(user, id, checkIn, checkOut);
+        if (conflicts.isEmpty()) return ok(new Json().beginObject().field("reservationId", id)
+                .field("checkIn", checkIn.toString()).field("checkOut", checkOut.toString()).endObject().toString());
+        Json json = new Json().beginObject()
+                .field("error", "The room is not available for the selected dates.")
+                .name("conflicts").beginArray();
+        for (Reservation c : conflicts) {
+            json.beginObject().field("checkIn", c.getCheckInDate()).field("checkOut", c.getCheckOutDate()).endObject();
+        }
+        return new Object[] { 409, json.endArray().endObject().toString() };
+    }
+
+    private String checkout(User user, int id, Map<String, String> body) {
+        HotelService.validateCardHolder(required(body, "cardHolder"));
+        HotelService.validateCardNumber(required(body, "cardNumber"));
+        HotelService.validateCvv(required(body, "cvv"));
+        HotelService.validateExpiry(required(body, "expiry"));
+        return invoiceJson(service.checkout(user, id));
+    }
+
+    private String complaint(User user, Map<String, String> body) {
+        Complaint c = service.fileComplaint(user, required(body, "contact"), required(body, "room"),
+                required(body, "type"), parseInt(required(body, "rating"), "Rating"));
+        return complaintJson(new Json(), c).toString();
+    }
+
+    private static Json complaintJson(Json json, Complaint c) {
+        return json.beginObject()
+                .field("complaintId", c.getComplaintId())
+                .field("contact", c.getContactNumber())
+                .field("room", c.getRoomNumber())
+                .field("type", c.getComplaintType())
+                .field("rating", c.getRating())
+                .endObject();
+    }
+
+    private String topComplaints(Map<String, String> query) {
+        String monthText = query.get("month");
+        YearMonth month;
+        try {
+            month = monthText == null ? null : YearMonth.parse(monthText);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid month format!");
+        }
+        int limit = parseInt(query.getOrDefault("limit", "10"), "Limit");
+        String by = query.getOrDefault("by", "room");
+        Json json = new Json().beginArray();
+        if (by.equals("room")) {
+            for (Map.Entry<Integer, RatingStats> e : service.topComplaintRooms(month, limit)) {
+                ratingStatsJson(json.beginObject().field("room", e.getKey()), e.getValue());
+            }
+        } else if (by.equals("type")) {
+            for (Map.Entry<String, RatingStats> e : service.topComplaintTypes(month, limit)) {
+                ratingStatsJson(json.beginObject().field("type", e.getKey()), e.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown by '" + by + "'!");
+        }
+        return json.endArray().toString();
+    }
+
+    static void ratingStatsJson(Json json, RatingStats s) {
+        json.field("complaints", s.getCount())
+                .field("meanRating", s.getMeanRatingHundredths() / 100.0)
+                .name("ratings").beginArray();
+        for (int rating = 1; rating <= 5; rating++) json.value(s.getCount(rating));
+        json.endArray().endObject();
+    }
+
+    private String searchComplaints(Map<String, String> query) {
+        Json json = new Json().beginArray();
+        for (Complaint c : service.searchComplaints(required(query, "q"),
+                parseInt(query.getOrDefault("limit", "20"), "Limit"))) {
+            complaintJson(json, c);
+        }
+        return json.endArray().toString();
+    }
+
+    private static String roomStatusJson(List<RoomStatus> statuses) {
+        Json json = new Json().beginArray();
+        for (RoomStatus s : statuses) {
+            Room r = s.getRoom();
+            json.beginObject()
+                    .field("room", r.getRoomNumber())
+                    .field("type", r.getType())
+                    .field("date", s.getDate().toString())
+                    .field("status", s.isOccupied() ? "Occupied" : "Vacant")
+                    .field("availableFrom", s.getAvailableFrom().toString())
+                    .field("pricePerNight", r.getPricePerNight())
+                    .field("place", r.getPlace())
+                    .endObject();
+        }
+        return json.endArray().toString();
+    }
+
+    private static Json reservationJson(Json json, Reservation r) {
+        return json.beginObject()
+                .field("reservationId", r.getReservationId())
+                .field("room", r.getRoomNumber())
+                .field("checkIn", r.getCheckInDate())
+                .field("checkOut", r.getCheckOutDate())
+                .field("userId", r.getUserId())
+                .moneyField("bill", r.getBillCents())
+                .endObject();
+    }
+
+    private static String invoiceJson(Invoice invoice) {
+        return new Json().beginObject()
+                .field("reservationId", invoice.getReservationId())
+                .field("checkIn", invoice.getCheckIn().toString())
+                .field("checkOut", invoice.getCheckOut().toString())
+                .field("room", invoice.getRoomNumber())
+                .field("type", invoice.getRoomType())
+                .field("nights", invoice.getNights())
+                .moneyField("amount", invoice.getAmountCents())
+                .endObject().toString();
+    }
+
+    static String error(String message) {
+        return new Json().beginObject().field("error", message).endObject().toString();
+    }
+
+    private static Object[] ok(String json) {
+        return new Object[] { 200, json };
+    }
+
+    private static Object[] created(String json) {
+        return new Object[] { 201, json };
+    }
+
+    // Authorization: Bearer <token from /login>, or Basic base64(userId:password)
+    private User authenticate(HttpExchange exchange) {
+        String token = bearerToken(exchange);
+        if (token != null) {
+            try {
+                return service.resolveSession(token);
+            } catch (IllegalArgumentException e) {
+                throw new HttpError(401, e.getMessage());
+            }
+        }
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Basic "))
+            throw new HttpError(401, "Authentication required!");
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(401, "Invalid credentials!");
+        }
+        int colon = credentials.indexOf(':');
+        if (colon < 0) throw new HttpError(401, "Invalid credentials!");
+        try {
+            return service.login(credentials.substring(0, colon), credentials.substring(colon + 1));
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(401, e.getMessage());
+        }
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+    }
+
+    private static void requireAdmin(User user) {
+        if (!user.isAdmin()) throw new HttpError(403, "Admin access required!");
+    }
+
+    private static String required(Map<String, String> values, String name) {
+        String value = values.get(name);
+        if (value == null) throw new IllegalArgumentException("Missing field '" + name + "'!");
+        return value;
+    }
+
+    private static Double optionalPrice(Map<String, String> values, String name) {
+        String value = values.get(name);
+        if (value == null) return null;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a valid number!");
+        }
+    }
+
+    private static int parseInt(String text, String what) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(what + " must be a valid number!");
+        }
+    }
+
+    // Any date, past ones included
+    private static LocalDate parseAnyDate(String text) {
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format!");
+        }
+    }
+
+    private static <E extends Enum<E>> E option(Class<E> type, String value, String name) {
+        for (E e : type.getEnumConstants()) {
+            if (e.name().equalsIgnoreCase(value)) return e;
+        }
+        throw new IllegalArgumentException("Unknown " + name + " '" + value + "'!");
+    }
+
+    private static int parseId(String text) {
+        return parseInt(text, "Reservation ID");
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> result = new HashMap<>();
+        if (rawQuery == null) return result;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0) continue;
+            result.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    // The body is always drained so the connection can be reused
+    static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0) exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// Append-only write-ahead log of every hotel mutation plus a compacted snapshot.
+// Startup loads the snapshot and replays the log tail. Compaction rotates the log,
+// writes the current state as a fresh snapshot on a background thread while
+// writers carry on into the new log, then drops the rotated one.
+//
+// Each record is framed as [int length][int crc32][payload], so a torn write at
+// the end of the log is detected and dropped on the next startup.
+public class HotelJournal implements Closeable {
+    private static final byte REGISTER = 1;
+    private static final byte RESERVE = 2;
+    private static final byte UPDATE_DATES = 3;
+    private static final byte REMOVE_RESERVATION = 4;
+    private static final byte CHECKOUT = 5;
+    private static final byte COMPLAINT = 6;
+    private static final byte UPDATE_PROFILE = 7;
+    private static final byte DELETE_PROFILE = 8;
+    private static final byte ROOM_VACANCY = 9;
+    private static final byte ID_HIGH_WATER = 10;
+
+    private static final int DEFAULT_SNAPSHOT_EVERY = 10_000;
+
+    // Receives records during startup, in the order they were written
+    public interface Replay {
+        void register(User user);
+        void reserve(Reservation reservation);
+        void updateDates(int reservationId, int checkInDay, int checkOutDay);
+        void removeReservation(int reservationId);
+        void checkout(int reservationId);
+        void complaint(Complaint complaint);
+        void updateProfile(User user);
+        void deleteProfile(String userId);
+        void roomVacancy(int roomNumber, boolean vacant);
+        void idHighWater(int reservationId, int complaintId, int userId);
+    }
+
+    private final Path logFile;
+    // The log as it was when the running compaction started
+    private final Path oldLogFile;
+    private final Path snapshotFile;
+    private final int snapshotEvery;
+    private FileChannel channel;
+    private DataOutputStream out;
+    // Used with appendLock held
+    private final Framer framer = new Framer();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Object syncLock = new Object();
+    private long appendedSeq = 0;
+    private volatile long syncedSeq = 0;
+    private int recordsSinceSnapshot = 0;
+    // Under appendLock: a compaction has rotated the log and not yet finished
+    private boolean snapshotting = false;
+
+    public HotelJournal(Path directory) {
+        this(directory, DEFAULT_SNAPSHOT_EVERY);
+    }
+
+    public HotelJournal(Path directory, int snapshotEvery) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create data directory " + directory, e);
+        }
+        this.logFile = directory.resolve("hotel.log");
+        this.oldLogFile = directory.resolve("hotel.log.old");
+        this.snapshotFile = directory.resolve("hotel.snapshot");
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    public boolean hasSnapshot() {
+        return Files.exists(snapshotFile);
+    }
+
+    // Replays snapshot then log into the given target and opens the log for appending
+    public void load(Replay target) {
+        try {
+            if (Files.exists(snapshotFile)) {
+                readRecords(snapshotFile, target);
+            }
+            // Left by a compaction that was cut short; its records come before the log's
+            long oldLength = Files.exists(oldLogFile) ? readRecords(oldLogFile, target) : -1;
+            long validLength = Files.exists(logFile) ? readRecords(logFile, target) : 0;
+            if (oldLength != -1) validLength = foldOldLog(oldLength, validLength);
+            openLog(validLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load journal from " + logFile, e);
+        }
+    }
+
+    // Puts the rotated log back in front of the current one, so the next
+    // compaction has somewhere to rotate to
+    private long foldOldLog(long oldLength, long logLength) throws IOException {
+        try (FileChannel old = FileChannel.open(oldLogFile, StandardOpenOption.WRITE)) {
+            old.truncate(oldLength);
+            old.position(oldLength);
+            if (logLength > 0) {
+                try (FileChannel current = FileChannel.open(logFile, StandardOpenOption.READ)) {
+                    long copied = 0;
+                    while (copied < logLength) copied += current.transferTo(copied, logLength - copied, old);
+                }
+            }
+            old.force(true);
+        }
+        Files.move(oldLogFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return oldLength + logLength;
+    }
+
+    private void openLog(long validLength) throws IOException {
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLength); // drop a torn tail, if any
+        channel.position(validLength);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+    }
+
+    // Returns the byte length of the valid prefix of the file
+    private long readRecords(Path file, Replay target) throws IOException {
+        long valid = 0;
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 64 * 1024))) {
+            byte[] payload = new byte[256];
+            CRC32 check = new CRC32();
+            while (true) {
+                int length;
+                int expectedCrc;
+                try {
+                    length = in.readInt();
+                    expectedCrc = in.readInt();
+                    if (length <= 0) break;
+                    if (payload.length < length) payload = new byte[Math.max(length, payload.length * 2)];
+                    in.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    break;
+                }
+                check.reset();
+                check.update(payload, 0, length);
+                if ((int) check.getValue() != expectedCrc) break;
+                apply(new DataInputStream(new ByteArrayInputStream(payload, 0, length)), target);
+                valid += 8 + length;
+            }
+        }
+        return valid;
+    }
+
+    private void apply(DataInputStream in, Replay target) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case REGISTER: target.register(readUser(in)); break;
+            case RESERVE: target.reserve(readReservation(in)); break;
+            case UPDATE_DATES: target.updateDates(in.readInt(), in.readInt(), in.readInt()); break;
+            case REMOVE_RESERVATION: target.removeReservation(in.readInt()); break;
+            case CHECKOUT: target.checkout(in.readInt()); break;
+            case COMPLAINT: target.complaint(readComplaint(in)); break;
+            case UPDATE_PROFILE: target.updateProfile(readUser(in)); break;
+            case DELETE_PROFILE: target.deleteProfile(in.readUTF()); break;
+            case ROOM_VACANCY: target.roomVacancy(in.readInt(), in.readBoolean()); break;
+            case ID_HIGH_WATER: target.idHighWater(in.readInt(), in.readInt(), in.readInt()); break;
+            default: throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    public void logRegister(User user) {
+        log(REGISTER, o -> writeUser(o, user));
+    }
+
+    // The append* methods write a record without waiting for it to reach disk, so
+    // callers can keep them in the same order as the in-memory changes while holding
+    // their own locks, then call awaitDurable once those are released.
+    public void appendReserve(Reservation r) {
+        append(RESERVE, o -> writeReservation(o, r));
+    }
+
+    public void appendUpdateDates(Reservation r) {
+        append(UPDATE_DATES, o -> {
+            o.writeInt(r.getReservationId());
+            o.writeInt(r.getCheckInDay());
+            o.writeInt(r.getCheckOutDay());
+        });
+    }
+
+    public void appendRemoveReservation(int reservationId) {
+        append(REMOVE_RESERVATION, o -> o.writeInt(reservationId));
+    }
+
+    public void appendCheckout(int reservationId) {
+        append(CHECKOUT, o -> o.writeInt(reservationId));
+    }
+
+    public void appendRoomVacancy(int roomNumber, boolean vacant) {
+        append(ROOM_VACANCY, o -> {
+            o.writeInt(roomNumber);
+            o.writeBoolean(vacant);
+        });
+    }
+
+    // Waits for a single fsync covering every record appended so far
+    public void awaitDurable() {
+        long seq;
+        appendLock.lock();
+        try {
+            seq = appendedSeq;
+        } finally {
+            appendLock.unlock();
+        }
+        commit(seq);
+    }
+
+    public void logComplaint(Complaint c) {
+        log(COMPLAINT, o -> writeComplaint(o, c));
+    }
+
+    public void logUpdateProfile(User user) {
+        log(UPDATE_PROFILE, o -> writeUser(o, user));
+    }
+
+    public void logDeleteProfile(String userId) {
+        log(DELETE_PROFILE, o -> o.writeUTF(userId));
+    }
+
+    public boolean needsSnapshot() {
+        appendLock.lock();
+        try {
+            return recordsSinceSnapshot >= snapshotEvery && !snapshotting;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // First half of a compaction, and all of it that holds the locks: forces the
+    // log, renames it to hotel.log.old and starts a fresh one. Returns false if
+    // a compaction is already running or not needed; otherwise the caller runs
+    // writeSnapshot on a background thread.
+    public boolean beginSnapshot() {
+        // No group commit may be forcing the channel that is being replaced
+        synchronized (syncLock) {
+            appendLock.lock();
+            try {
+                if (recordsSinceSnapshot < snapshotEvery || snapshotting) return false;
+                out.flush();
+                channel.force(false);
+                Files.move(logFile, oldLogFile, StandardCopyOption.ATOMIC_MOVE);
+                FileChannel old = channel;
+                openLog(0);
+                old.close();
+                recordsSinceSnapshot = 0;
+                syncedSeq = appendedSeq;
+                snapshotting = true;
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot rotate journal " + logFile, e);
+            } finally {
+                appendLock.unlock();
+            }
+        }
+    }
+
+    // Second half of a compaction, off the request threads: writes the full state
+    // as a new snapshot, then drops the rotated log. The state is read while
+    // writers carry on, so it may already reflect some records of the new log;
+    // replay applies those again to the same effect. The ID high-water marks are
+    // kept so removed IDs are never reissued. If this fails, no compaction runs
+    // again until a restart folds the rotated log back in.
+    public void writeSnapshot(Collection<User> users, Collection<Room> rooms,
+                              Collection<Reservation> reservations, Collection<Complaint> complaints,
+                              IdGenerator reservationIds, IdGenerator complaintIds, IdGenerator userIds) {
+        Framer snapshotFramer = new Framer();
+        try {
+            Path tmp = snapshotFile.resolveSibling("hotel.snapshot.tmp");
+            try (FileChannel snap = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream o = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(snap), 64 * 1024))) {
+                snapshotFramer.frame(o, ID_HIGH_WATER, p -> {
+                    p.writeInt(reservationIds.current());
+                    p.writeInt(complaintIds.current());
+                    p.writeInt(userIds.current());
+                });
+                for (User u : users) {
+                    snapshotFramer.frame(o, REGISTER, p -> writeUser(p, u));
+                }
+                for (Room room : rooms) {
+                    if (room.isVacant()) continue;
+                    snapshotFramer.frame(o, ROOM_VACANCY, p -> {
+                        p.writeInt(room.getRoomNumber());
+                        p.writeBoolean(false);
+                    });
+                }
+                for (Reservation r : reservations) {
+                    snapshotFramer.frame(o, RESERVE, p -> writeReservation(p, r));
+                }
+                for (Complaint c : complaints) {
+                    snapshotFramer.frame(o, COMPLAINT, p -> writeComplaint(p, c));
+                }
+                o.flush();
+                snap.force(true);
+            }
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(oldLogFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact journal " + logFile, e);
+        }
+        appendLock.lock();
+        try {
+            snapshotting = false;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (out == null) return;
+        appendLock.lock();
+        try {
+            out.flush();
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // --- framing ---
+
+    private interface RecordBody {
+        void write(DataOutputStream o) throws IOException;
+    }
+
+    private void log(byte type, RecordBody body) {
+        commit(append(type, body));
+    }
+
+    // Returns the record's sequence number for commit
+    private long append(byte type, RecordBody body) {
+        appendLock.lock();
+        try {
+            framer.frame(out, type, body);
+            recordsSinceSnapshot++;
+            return ++appendedSeq;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to journal " + logFile, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Frames records through one reused scratch buffer; one thread at a time
+    private static final class Framer {
+        private final ByteArrayOutputStream scratch = new ByteArrayOutputStream(128);
+        private final DataOutputStream scratchOut = new DataOutputStream(scratch);
+        private final CRC32 crc = new CRC32();
+
+        void frame(DataOutputStream target, byte type, RecordBody body) throws IOException {
+            scratch.reset();
+            scratchOut.writeByte(type);
+            body.write(scratchOut);
+            byte[] payload = scratch.toByteArray();
+            crc.reset();
+            crc.update(payload, 0, payload.length);
+            target.writeInt(payload.length);
+            target.writeInt((int) crc.getValue());
+            target.write(payload);
+        }
+    }
+
+    // Group commit: appends bump appendedSeq under appendLock; whoever gets the sync
+    // lock first flushes and forces everything appended so far, and writers whose
+    // record was covered by that fsync return without issuing their own.
+    private void commit(long seq) {
+        if (syncedSeq >= seq) return;
+        synchronized (syncLock) {
+            if (syncedSeq >= seq) return;
+            long target;
+            try {
+                appendLock.lock();
+                try {
+                    out.flush();
+                    target = appendedSeq;
+                } finally {
+                    appendLock.unlock();
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot sync journal " + logFile, e);
+            }
+            syncedSeq = target;
+        }
+    }
+
+    // --- record bodies ---
+
+    private static void writeUser(DataOutputStream o, User u) throws IOException {
+        o.writeUTF(u.getUserId());
+        o.writeUTF(u.getPasswordHash());
+        o.writeBoolean(u.isAdmin());
+        o.writeUTF(u.getName());
+        o.writeUTF(u.getEmail());
+    }
+
+    private static User readUser(DataInputStream in) throws IOException {
+        return new User(in.readUTF(), in.readUTF(), in.readBoolean(), in.readUTF(), in.readUTF());
+    }
+
+    private static void writeReservation(DataOutputStream o, Reservation r) throws IOException {
+        o.writeInt(r.getReservationId());
+        o.writeInt(r.getCheckInDay());
+        o.writeInt(r.getCheckOutDay());
+        o.writeInt(r.getRoomNumber());
+        o.writeLong(r.getBillCents());
+        o.writeUTF(r.getUserId());
+    }
+
+    private static Reservation readReservation(DataInputStream in) throws IOException {
+        return new Reservation(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readLong(), in.readUTF());
+    }
+
+    private static void writeComplaint(DataOutputStream o, Complaint c) throws IOException {
+        o.writeInt(c.getComplaintId());
+        o.writeUTF(c.getUsername());
+        o.writeUTF(c.getContactNumber());
+        o.writeInt(c.getRoomNumber());
+        o.writeUTF(c.getComplaintType());
+        o.writeInt(c.getRating());
+        o.writeInt(c.getFiledDay());
+    }
+
+    private static Complaint readComplaint(DataInputStream in) throws IOException {
+        return new Complaint(in.readInt(), in.readUTF(), in.readUTF(), in.readInt(), in.readUTF(), in.readInt(),
+                in.readInt());
+    }
+}
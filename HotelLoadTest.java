@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop load generator for HotelHttpServer:
+//
+//   java HotelLoadTest [baseUrl|-] [clients] [seconds] [writePercent]
+//
+// With no URL (or "-") it starts a server on a free port over a temporary data
+// directory. Each client thread keeps one persistent connection busy, mixing room
+// status reads with bookings, and the run reports requests/s and latency percentiles.
+public class HotelLoadTest {
+    private static final int MAX_SAMPLES = 1 << 20;
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "-";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        HotelService service = null;
+        HotelHttpServer server = null;
+        Path dataDir = null;
+        if (baseUrl.equals("-")) {
+            dataDir = Files.createTempDirectory("hotel-load");
+            service = new HotelService(dataDir);
+            server = new HotelHttpServer(service, 0);
+            server.start();
+            baseUrl = "http://localhost:" + server.getPort();
+        }
+        try {
+            run(baseUrl, clients, seconds, writePercent);
+        } finally {
+            if (server != null) server.stop();
+            if (service != null) service.close();
+            if (dataDir != null) deleteRecursively(dataDir);
+        }
+    }
+
+    private static void run(String baseUrl, int clients, int seconds, int writePercent)
+            throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String auth = "Bearer " + login(client, baseUrl, "U002", "cust123");
+        URI statusUri = URI.create(baseUrl + "/rooms/status?date=" + HotelService.CURRENT_DATE);
+        URI reserveUri = URI.create(baseUrl + "/reservations");
+
+        AtomicLong ok = new AtomicLong();
+        AtomicLong rejected = new AtomicLong(); // 4xx, e.g. no room free for the requested dates
+        AtomicLong failed = new AtomicLong();
+        long[] samples = new long[MAX_SAMPLES];
+        AtomicLong sampleCount = new AtomicLong();
+
+        // Warm up connections and the JIT before measuring
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(Math.min(3, seconds)).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(seconds).toNanos();
+
+        Thread[] threads = new Thread[clients];
+        for (int t = 0; t < clients; t++) {
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (true) {
+                    long start = System.nanoTime();
+                    if (start >= end) return;
+                    HttpRequest request = random.nextInt(100) < writePercent
+                            ? reserveRequest(reserveUri, auth, random)
+                            : HttpRequest.newBuilder(statusUri).header("Authorization", auth).GET().build();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    if (start < warmupEnd) continue;
+                    if (status >= 200 && status < 300) ok.incrementAndGet();
+                    else if (status >= 400 && status < 500) rejected.incrementAndGet();
+                    else failed.incrementAndGet();
+                    long slot = sampleCount.getAndIncrement();
+                    if (slot < MAX_SAMPLES) samples[(int) slot] = elapsed;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        long total = ok.get() + rejected.get() + failed.get();
+        int sampled = (int) Math.min(sampleCount.get(), MAX_SAMPLES);
+        Arrays.sort(samples, 0, sampled);
+        System.out.printf("url=%s clients=%d seconds=%d writes=%d%%%n", baseUrl, clients, seconds, writePercent);
+        System.out.printf("requests=%d ok=%d rejected=%d failed=%d%n", total, ok.get(), rejected.get(), failed.get());
+        System.out.printf("throughput=%.0f req/s%n", total / (double) seconds);
+        if (sampled > 0) {
+            System.out.printf("latency p50=%.2f ms p99=%.2f ms p99.9=%.2f ms%n",
+                    samples[sampled / 2] / 1e6,
+                    samples[Math.min(sampled - 1, (int) (sampled * 0.99))] / 1e6,
+                    samples[Math.min(sampled - 1, (int) (sampled * 0.999))] / 1e6);
+        }
+    }
+
+    // Logs in once so measured requests resolve a session token instead of hashing a password
+    private static String login(HttpClient client, String baseUrl, String userId, String password)
+            throws IOException, InterruptedException {
+        String body = new Json().beginObject().field("userId", userId).field("password", password).endObject().toString();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200)
+            throw new IOException("Login failed: " + response.statusCode() + " " + response.body());
+        return Json.parseObject(response.body()).get("token");
+    }
+
+    // A two-night stay somewhere in the next hundred years so most bookings find a room
+    private static HttpRequest reserveRequest(URI uri, String auth, ThreadLocalRandom random) {
+        LocalDate checkIn = HotelService.CURRENT_DATE.plusDays(1 + random.nextInt(36_500));
+        String[] types = { "Single", "Double", "Suite" };
+        String body = new Json().beginObject()
+                .field("checkIn", checkIn.toString())
+                .field("checkOut", checkIn.plusDays(2).toString())
+                .field("roomType", types[random.nextInt(types.length)])
+                .endObject().toString();
+        return HttpRequest.newBuilder(uri)
+                .header("Authorization", auth)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (java.util.stream.Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(java.util.Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// The service's operation statistics: one OperationStats per operation, registered
+// as hotel:type=Operation,name=<operation> MBeans (with place=<place> added when one
+// JVM hosts several places' services) and appended as a text table to a
+// log file at a fixed interval.
+//
+// -Dhotel.metrics=false turns all of it off. The flag is a static final, so the JIT
+// folds the checks in OperationStats away and an instrumented call costs nothing
+// extra; no MBeans are registered and no dump thread is started.
+public class HotelMetrics {
+    public static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("hotel.metrics", "true"));
+    static final String JMX_DOMAIN = "hotel";
+
+    private final Map<String, OperationStats> operations = new LinkedHashMap<>();
+    private final Collection<ObjectName> registered = new ArrayList<>();
+    private ScheduledExecutorService dumper;
+
+    public final OperationStats login = add("login");
+    public final OperationStats reserve = add("reserve");
+    public final OperationStats bookForUser = add("bookForUser");
+    public final OperationStats searchRooms = add("searchRooms");
+    public final OperationStats changeDates = add("changeDates");
+    public final OperationStats cancel = add("cancel");
+    public final OperationStats checkout = add("checkout");
+    public final OperationStats roomStatus = add("roomStatus");
+    public final OperationStats history = add("history");
+    public final OperationStats fileComplaint = add("fileComplaint");
+
+    private OperationStats add(String name) {
+        OperationStats stats = new OperationStats(name);
+        operations.put(name, stats);
+        return stats;
+    }
+
+    public Collection<OperationStats> all() {
+        return operations.values();
+    }
+
+    // Registers the MBeans on the platform server, replacing any left by an earlier
+    // instance for the same place in the same JVM; place is null for a single hotel
+    public void registerMBeans(String place) {
+        if (!ENABLED) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String prefix = JMX_DOMAIN + ":type=Operation," + (place == null ? "" : "place=" + ObjectName.quote(place) + ",");
+        try {
+            for (OperationStats stats : operations.values()) {
+                ObjectName name = new ObjectName(prefix + "name=" + stats.getName());
+                if (server.isRegistered(name)) server.unregisterMBean(name);
+                server.registerMBean(stats, name);
+                registered.add(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metrics MBeans", e);
+        }
+    }
+
+    // Appends dump() to file every intervalSeconds on a daemon thread; 0 disables it
+    public void startDump(Path file, int intervalSeconds) {
+        if (!ENABLED || intervalSeconds <= 0) return;
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> append(file), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void append(Path file) {
+        try {
+            Files.writeString(file, dump(new StringBuilder()), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Operations that have been called since startup, one line each plus their failure reasons:
+    // reserve         calls=120 failures=3 mean=412.5us p50=380us p90=520us p99=1200us max=3100us
+    public StringBuilder dump(StringBuilder sb) {
+        sb.append("--- metrics at ").append(LocalDateTime.now().withNano(0)).append(" ---\n");
+        for (OperationStats stats : operations.values()) {
+            long calls = stats.getCalls();
+            long failures = stats.getFailures();
+            if (calls == 0 && failures == 0) continue;
+            long[] p = stats.latency().percentiles(0.50, 0.90, 0.99);
+            sb.append(String.format("%-15s calls=%d failures=%d mean=%.1fus p50=%dus p90=%dus p99=%dus max=%dus%n",
+                    stats.getName(), calls, failures, stats.getMeanMicros(),
+                    p[0] / 1000, p[1] / 1000, p[2] / 1000, stats.latency().max() / 1000));
+            for (String reason : stats.getFailureReasons()) sb.append("    ").append(reason).append('\n');
+        }
+        return sb;
+    }
+
+    public void close() {
+        if (dumper != null) dumper.shutdownNow();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                if (server.isRegistered(name)) server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Already gone
+            }
+        }
+        registered.clear();
+    }
+}
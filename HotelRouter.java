@@ -0,0 +1,343 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+// Front door for a chain whose places are partitioned across several nodes (see
+// HotelHttpServer). Each place belongs to one node, picked by consistent hashing
+// of its name over the node URLs, so every router and node built from the same
+// node list agrees on the owner without talking to each other.
+//
+//   GET  /places                     each place and the node that owns it
+//   ANY  /places/{place}/...         passed through unchanged to the owning node
+//   GET  /rooms/search?...           asked of every place, merged cheapest stay first
+//   GET  /rooms/status?...           every place's rooms
+//   GET  /analytics?...              totals summed per period and group
+//   GET  /complaints/top?...         histograms summed per room or type, then ranked
+//   GET  /complaints/search?...      matches from each place in turn, up to limit
+//   GET  /metrics                    each place's operation stats
+//
+// The router keeps no state of its own. Sessions belong to a place: a Bearer
+// token from /places/{place}/login only works under that place, so the fan-out
+// endpoints, which ask every place, need HTTP Basic credentials. Node calls run
+// in parallel; the first place to answer with an error has its response relayed,
+// and a node that can't be reached turns into a 502 naming it.
+public class HotelRouter {
+    private static final Duration NODE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HashRing ring;
+    private final List<String> places;
+    private final HttpClient client;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // An error with the HTTP status to report it as
+    private static class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // A place's non-200 answer to a fan-out call, passed back to the client as is
+    private static class RelayedResponse extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final transient HttpResponse<String> response;
+
+        RelayedResponse(HttpResponse<String> response) {
+            super(null, null, false, false);
+            this.response = response;
+        }
+    }
+
+    public HotelRouter(HashRing ring, List<String> places, int port) throws IOException {
+        this.ring = ring;
+        this.places = places;
+        this.executor = HotelHttpServer.newRequestExecutor();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(NODE_TIMEOUT)
+                .executor(executor)
+                .build();
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String body = HotelHttpServer.readBody(exchange);
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String rawPath = exchange.getRequestURI().getRawPath();
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (path.length >= 3 && path[1].equals("places")) {
+                String place = path[2];
+                if (!places.contains(place)) throw new HttpError(404, "Unknown place: " + place + "!");
+                int slash = rawPath.indexOf('/', "/places/".length());
+                if (slash == -1) throw new HttpError(404, "No endpoint given; use /places/" + place + "/...");
+                String rest = rawPath.substring(slash);
+                relay(exchange, await(place, send(place, method, rest, rawQuery, body, exchange)));
+                return;
+            }
+            if (path.length == 2 && path[1].equals("places") && method.equals("GET")) {
+                Json json = new Json().beginArray();
+                for (String place : places) {
+                    json.beginObject().field("place", place).field("node", ring.nodeFor(place)).endObject();
+                }
+                HotelHttpServer.respond(exchange, 200, json.endArray().toString());
+                return;
+            }
+            if (method.equals("GET")) {
+                String merged = fanOut(exchange, String.join("/", path), rawQuery);
+                if (merged != null) {
+                    HotelHttpServer.respond(exchange, 200, merged);
+                    return;
+                }
+            }
+            throw new HttpError(404, "No such endpoint: " + method + " " + rawPath
+                    + "; single-place requests go to /places/{place}/...");
+        } catch (HttpError e) {
+            HotelHttpServer.respond(exchange, e.status, HotelHttpServer.error(e.getMessage()));
+        } catch (RelayedResponse r) {
+            relay(exchange, r.response);
+        } catch (IllegalArgumentException e) {
+            HotelHttpServer.respond(exchange, 400, HotelHttpServer.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            HotelHttpServer.respond(exchange, 500, HotelHttpServer.error("Internal error: " + e.getMessage()));
+        }
+    }
+
+    // The merged JSON for a fan-out endpoint, or null if path isn't one
+    private String fanOut(HttpExchange exchange, String path, String rawQuery) {
+        Map<String, String> query = queryParams(rawQuery);
+        switch (path) {
+            case "/rooms/search": {
+                // Nodes have checked the query by the time their answers are in
+                List<String> rooms = askAll(exchange, path, rawQuery);
+                int limit = parseLimit(query.getOrDefault("limit", "20"));
+                List<Long> prices = new ArrayList<>(rooms.size());
+                List<Integer> order = new ArrayList<>(rooms.size());
+                for (int i = 0; i < rooms.size(); i++) {
+                    prices.add(Money.ofDollars(Double.parseDouble(Json.parseFields(rooms.get(i)).get("stayPrice"))));
+                    order.add(i);
+                }
+                order.sort(Comparator.comparingLong(prices::get));
+                Json json = new Json().beginArray();
+                for (int i = 0; i < Math.min(limit, order.size()); i++) json.raw(rooms.get(order.get(i)));
+                return json.endArray().toString();
+            }
+            case "/rooms/status":
+                return concat(askAll(exchange, path, rawQuery), Integer.MAX_VALUE);
+            case "/complaints/search":
+                return concat(askAll(exchange, path, rawQuery), parseLimit(query.getOrDefault("limit", "20")));
+            case "/analytics":
+                return analytics(askAll(exchange, path, rawQuery));
+            case "/complaints/top":
+                return topComplaints(exchange, path, rawQuery, query);
+            case "/metrics": {
+                List<CompletableFuture<HttpResponse<String>>> calls = sendAll(exchange, path, rawQuery);
+                Json json = new Json().beginArray();
+                for (int i = 0; i < places.size(); i++) {
+                    String place = places.get(i);
+                    json.beginObject().field("place", place).field("node", ring.nodeFor(place))
+                            .name("operations").raw(succeeded(place, calls.get(i)).body()).endObject();
+                }
+                return json.endArray().toString();
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static String analytics(List<String> rows) {
+        // Summed per (period, group), keeping the order each cell was first seen in
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        Map<String, String[]> keys = new LinkedHashMap<>();
+        for (String row : rows) {
+            Map<String, String> f = Json.parseFields(row);
+            String key = f.get("periodStart") + "\t" + f.get("group");
+            long[] t = totals.computeIfAbsent(key, k -> new long[3]);
+            keys.putIfAbsent(key, new String[] { f.get("periodStart"), f.get("group") });
+            t[0] += Long.parseLong(f.get("roomNights"));
+            t[1] += Long.parseLong(f.get("soldNights"));
+            t[2] += Money.ofDollars(Double.parseDouble(f.get("revenue")));
+        }
+        List<AnalyticsRow> merged = new ArrayList<>(totals.size());
+        for (Map.Entry<String, long[]> e : totals.entrySet()) {
+            String[] k = keys.get(e.getKey());
+            long[] t = e.getValue();
+            merged.add(new AnalyticsRow(LocalDate.parse(k[0]), k[1], t[0], t[1], t[2]));
+        }
+        merged.sort(Comparator.comparing(AnalyticsRow::getPeriodStart));
+        Json json = new Json().beginArray();
+        for (AnalyticsRow a : merged) HotelHttpServer.analyticsJson(json, a);
+        return json.endArray().toString();
+    }
+
+    // Rooms are unique to a place, so each place's top n covers the chain's; a type
+    // spans places, so every place's full list is needed before ranking
+    private String topComplaints(HttpExchange exchange, String path, String rawQuery, Map<String, String> query) {
+        boolean byRoom = query.getOrDefault("by", "room").equals("room");
+        List<String> entries = askAll(exchange, path,
+                byRoom ? rawQuery : withParam(rawQuery, "limit", String.valueOf(Integer.MAX_VALUE)));
+        int limit = parseLimit(query.getOrDefault("limit", "10"));
+        Map<String, int[]> histograms = new LinkedHashMap<>();
+        for (String entry : entries) {
+            Map<String, String> f = Json.parseFields(entry);
+            int[] h = histograms.computeIfAbsent(f.get(byRoom ? "room" : "type"), k -> new int[5]);
+            List<String> ratings = Json.splitArray(f.get("ratings"));
+            for (int i = 0; i < 5; i++) h[i] += Integer.parseInt(ratings.get(i));
+        }
+        List<Map.Entry<String, RatingStats>> ranked = new ArrayList<>(histograms.size());
+        for (Map.Entry<String, int[]> e : histograms.entrySet()) {
+            ranked.add(Map.entry(e.getKey(), RatingStats.of(e.getValue())));
+        }
+        Comparator<Map.Entry<String, RatingStats>> byKey = byRoom
+                ? Comparator.comparingInt(e -> Integer.parseInt(e.getKey()))
+                : Map.Entry.comparingByKey();
+        ranked.sort(Map.Entry.<String, RatingStats>comparingByValue(RatingStats.WORST_FIRST).thenComparing(byKey));
+        Json json = new Json().beginArray();
+        for (Map.Entry<String, RatingStats> e : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            json.beginObject();
+            if (byRoom) json.field("room", Integer.parseInt(e.getKey()));
+            else json.field("type", e.getKey());
+            HotelHttpServer.ratingStatsJson(json, e.getValue());
+        }
+        return json.endArray().toString();
+    }
+
+    private static String concat(List<String> elements, int limit) {
+        Json json = new Json().beginArray();
+        for (String e : elements.subList(0, Math.min(limit, elements.size()))) json.raw(e);
+        return json.endArray().toString();
+    }
+
+    // Every place's JSON array, elements in place order
+    private List<String> askAll(HttpExchange exchange, String path, String rawQuery) {
+        List<CompletableFuture<HttpResponse<String>>> calls = sendAll(exchange, path, rawQuery);
+        List<String> elements = new ArrayList<>();
+        for (int i = 0; i < places.size(); i++) {
+            elements.addAll(Json.splitArray(succeeded(places.get(i), calls.get(i)).body()));
+        }
+        return elements;
+    }
+
+    private List<CompletableFuture<HttpResponse<String>>> sendAll(HttpExchange exchange, String path, String rawQuery) {
+        List<CompletableFuture<HttpResponse<String>>> calls = new ArrayList<>(places.size());
+        for (String place : places) calls.add(send(place, "GET", path, rawQuery, "", exchange));
+        return calls;
+    }
+
+    private HttpResponse<String> succeeded(String place, CompletableFuture<HttpResponse<String>> call) {
+        HttpResponse<String> response = await(place, call);
+        if (response.statusCode() != 200) throw new RelayedResponse(response);
+        return response;
+    }
+
+    private HttpResponse<String> await(String place, CompletableFuture<HttpResponse<String>> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            throw new HttpError(502, "Node " + ring.nodeFor(place) + " for " + place + " is unavailable: "
+                    + e.getCause());
+        }
+    }
+
+    // A request to one place, with the caller's credentials
+    private CompletableFuture<HttpResponse<String>> send(String place, String method, String path, String rawQuery,
+                                                         String body, HttpExchange exchange) {
+        String uri = ring.nodeFor(place) + "/places/" + URLEncoder.encode(place, StandardCharsets.UTF_8).replace("+", "%20")
+                + path + (rawQuery == null ? "" : "?" + rawQuery);
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri))
+                .timeout(NODE_TIMEOUT)
+                .method(method, body.isEmpty() ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        for (String header : new String[] { "Authorization", "Content-Type" }) {
+            String value = exchange.getRequestHeaders().getFirst(header);
+            if (value != null) request.header(header, value);
+        }
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Sends a node's response on unchanged, with the headers clients rely on
+    private static void relay(HttpExchange exchange, HttpResponse<String> response) throws IOException {
+        for (String header : new String[] { "Content-Type", "X-Next-Cursor" }) {
+            response.headers().firstValue(header).ifPresent(v -> exchange.getResponseHeaders().set(header, v));
+        }
+        byte[] bytes = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(response.statusCode(), bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static int parseLimit(String text) {
+        int limit;
+        try {
+            limit = Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Limit must be a valid number!");
+        }
+        if (limit < 1) throw new IllegalArgumentException("Limit must be at least 1!");
+        return limit;
+    }
+
+    private static Map<String, String> queryParams(String rawQuery) {
+        Map<String, String> result = new LinkedHashMap<>();
+        if (rawQuery == null) return result;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) result.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    private static String withParam(String rawQuery, String name, String value) {
+        StringBuilder sb = new StringBuilder(name).append('=').append(value);
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                if (!pair.startsWith(name + "=")) sb.append('&').append(pair);
+            }
+        }
+        return sb.toString();
+    }
+}
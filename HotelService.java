@@ -0,0 +1,902 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Non-interactive hotel API. Every operation takes plain arguments, returns a
+// result object and reports invalid input with IllegalArgumentException, so it
+// can be driven by the console menus, an HTTP front end or a benchmark alike.
+// Safe for concurrent callers.
+public class HotelService {
+    public static final LocalDate CURRENT_DATE = LocalDate.of(2025, 4, 5);
+    // Ten years of daily rows is already more than any report needs
+    static final int MAX_ANALYTICS_DAYS = 3660;
+
+    private final UserRepository users = new UserRepository();
+    private final RoomRepository rooms = new RoomRepository();
+    private final ReservationRepository reservations = new ReservationRepository(rooms);
+    private final ComplaintStore complaints = new ComplaintStore();
+    private final IdGenerator userIds = new IdGenerator();
+    private final IdGenerator reservationIds = new IdGenerator();
+    private final IdGenerator complaintIds = new IdGenerator();
+    private final HotelJournal journal;
+    private final ReservationArchive archive;
+    private final BookingEngine bookingEngine;
+    private final RoomSearch roomSearch;
+    private final PricingEngine pricing;
+    private final LoginGuard loginGuard = new LoginGuard();
+    private final SessionManager sessions = new SessionManager();
+    private final HotelMetrics metrics = new HotelMetrics();
+    private final BookingEventBus events = new BookingEventBus(Integer.getInteger("hotel.events.ringSize", 8192));
+    private BookingEventLog eventLog;
+    // Rolls the day-indexed tables forward as the date changes
+    private final ScheduledExecutorService calendarRoller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "calendar-roll");
+        t.setDaemon(true);
+        return t;
+    });
+    // Writes journal snapshots so the request that triggers one does not wait for it
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "journal-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public HotelService(Path dataDir) {
+        this(dataDir, sampleRooms());
+    }
+
+    public HotelService(Path dataDir, Collection<Room> roomList) {
+        this(dataDir, roomList, null);
+    }
+
+    // All state is recovered from, and written through to, the journal in dataDir.
+    // place names the partition when one JVM runs a service per place, and keeps
+    // their metrics MBeans apart; null for a single hotel.
+    public HotelService(Path dataDir, Collection<Room> roomList, String place) {
+        for (Room room : roomList) rooms.add(room);
+
+        // Checked-out reservations live off-heap; their IDs must never be handed out again
+        archive = new ReservationArchive(dataDir.resolve("archive"));
+        userIds.markUsed(archive.maxUserOrdinal());
+        reservationIds.markUsed(archive.maxReservationId());
+
+        // Rate tables cover the same days as the rooms' occupancy calendars
+        pricing = new PricingEngine(rooms, placeFactors(dataDir), Reservation.toEpochDay(LocalDate.now()),
+                OccupancyCalendar.DEFAULT_HORIZON_DAYS);
+        reservations.addListener(pricing);
+
+        journal = new HotelJournal(dataDir);
+        bookingEngine = new BookingEngine(rooms, reservations, reservationIds, journal, archive, pricing, events);
+        roomSearch = new RoomSearch(rooms);
+        // Sample users with auto-generated IDs and emails; a snapshot already holds them
+        if (!journal.hasSnapshot()) {
+            users.add(new User("U001", PasswordHasher.hash("admin123"), true, "Admin User", "admin@hotel.com"));
+            users.add(new User("U002", PasswordHasher.hash("cust123"), false, "Customer One", "customer1@hotel.com"));
+            userIds.markUsed(2);
+        }
+        journal.load(new JournalReplay());
+        archive.sync();
+        metrics.registerMBeans(place);
+        // -Dhotel.events.log=true appends every booking event to events.log for external consumers
+        if (Boolean.getBoolean("hotel.events.log")) {
+            try {
+                eventLog = new BookingEventLog(dataDir.resolve("events.log"));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open event log in " + dataDir, e);
+            }
+            events.subscribe("log", eventLog);
+        }
+        metrics.startDump(dataDir.resolve("metrics.log"), Integer.getInteger("hotel.metrics.dumpSeconds", 60));
+        // Hourly, so the calendars move within the hour after midnight whatever the start time
+        calendarRoller.scheduleAtFixedRate(this::rollCalendars, 1, 1, TimeUnit.HOURS);
+    }
+
+    // Starts every room's occupancy calendar, then the rate tables counted from them,
+    // at today; a no-op until the date changes
+    void rollCalendars() {
+        int today = Reservation.toEpochDay(LocalDate.now());
+        for (Room room : rooms.all()) room.getReservationIndex().rollCalendar(today);
+        pricing.roll(today);
+    }
+
+    // Place price factors from place-factors.properties in dataDir (place=factor per
+    // line), or the sample chain's when there is no such file
+    static Map<String, Double> placeFactors(Path dataDir) {
+        Path file = dataDir.resolve("place-factors.properties");
+        if (!Files.exists(file)) return SAMPLE_PLACE_FACTORS;
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file, e);
+        }
+        Map<String, Double> factors = new HashMap<>();
+        for (String place : properties.stringPropertyNames()) {
+            try {
+                factors.put(place, Double.parseDouble(properties.getProperty(place).trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Place factor for " + place + " must be a valid number!");
+            }
+        }
+        return factors;
+    }
+
+    public static List<Room> sampleRooms() {
+        return Arrays.asList(
+                new Room("Single", true, "2025-04-05", 50.0, "Downtown", 101),
+                new Room("Double", true, "2025-04-05", 80.0, "Downtown", 201),
+                new Room("Suite", true, "2025-04-05", 150.0, "Downtown", 301),
+                new Room("Single", true, "2025-04-05", 50.0, "Downtown", 102),
+                new Room("Double", true, "2025-04-05", 80.0, "Downtown", 202));
+    }
+
+    // The properties of the sample chain. Each has the Downtown layout, numbered
+    // from 1000 x its position so room numbers stay unique across the chain when
+    // the router merges results from several places.
+    public static final List<String> SAMPLE_PLACES = List.of("Downtown", "Airport", "Beach", "Old Town");
+    // Downtown, the original hotel, stays at its list prices
+    public static final Map<String, Double> SAMPLE_PLACE_FACTORS =
+            Map.of("Downtown", 1.0, "Airport", 0.9, "Beach", 1.25, "Old Town", 1.1);
+
+    public static List<Room> sampleRooms(Collection<String> places) {
+        List<Room> result = new ArrayList<>();
+        for (String place : places) {
+            int block = SAMPLE_PLACES.indexOf(place);
+            if (block < 0) throw new IllegalArgumentException("Unknown place: " + place + "!");
+            for (Room r : sampleRooms()) {
+                result.add(new Room(r.getType(), true, "2025-04-05", r.getPricePerNight(), place,
+                        1000 * block + r.getRoomNumber()));
+            }
+        }
+        return result;
+    }
+
+    // Applies journal records to in-memory state during startup
+    private class JournalReplay implements HotelJournal.Replay {
+        public void register(User user) {
+            // A snapshot taken while writers carried on may already hold the user
+            User old = users.findById(user.getUserId());
+            if (old != null) users.remove(old);
+            users.add(user);
+            userIds.markUsed(ReservationArchive.userOrdinal(user.getUserId()));
+        }
+
+        public void reserve(Reservation reservation) {
+            loadReservation(reservation);
+        }
+
+        public void updateDates(int reservationId, int checkInDay, int checkOutDay) {
+            Reservation r = reservations.findById(reservationId);
+            if (r != null) reservations.changeDates(r, checkInDay, checkOutDay);
+        }
+
+        public void removeReservation(int reservationId) {
+            Reservation r = reservations.findById(reservationId);
+            if (r != null) bookingEngine.remove(r);
+        }
+
+        public void checkout(int reservationId) {
+            Reservation r = reservations.findById(reservationId);
+            if (r == null) return;
+            // The checkout record can reach disk before the archive row written with it
+            archive.append(r);
+            bookingEngine.remove(r);
+        }
+
+        public void complaint(Complaint complaint) {
+            // As with reservations, a snapshot taken mid-filing may repeat a logged complaint
+            if (complaints.findById(complaint.getComplaintId()) == null) complaints.add(complaint);
+            complaintIds.markUsed(complaint.getComplaintId());
+        }
+
+        public void updateProfile(User user) {
+            User old = users.findById(user.getUserId());
+            if (old != null) users.remove(old);
+            users.add(user);
+        }
+
+        public void deleteProfile(String userId) {
+            User user = users.findById(userId);
+            if (user != null) deleteUserData(user);
+        }
+
+        public void roomVacancy(int roomNumber, boolean vacant) {
+            Room room = rooms.findByNumber(roomNumber);
+            if (room != null) room.setVacant(vacant);
+        }
+
+        public void idHighWater(int reservationId, int complaintId, int userId) {
+            reservationIds.markUsed(reservationId);
+            complaintIds.markUsed(complaintId);
+            userIds.markUsed(userId);
+        }
+    }
+
+    // Adds an already-persisted reservation to the indexes without journaling it
+    void loadReservation(Reservation reservation) {
+        // A snapshot taken while bookings were in flight may repeat a logged reservation
+        if (reservations.findById(reservation.getReservationId()) != null) return;
+        reservationIds.markUsed(reservation.getReservationId());
+        // Archived, but the crash came before its checkout reached the journal
+        if (archive.contains(reservation.getReservationId())) return;
+        reservations.add(reservation);
+    }
+
+    // Compacts the journal once enough records have accumulated since the last
+    // snapshot. Only the log rotation runs on the calling thread.
+    private void maybeSnapshot() {
+        if (journal.needsSnapshot() && journal.beginSnapshot()) {
+            snapshotWriter.execute(() -> {
+                try {
+                    journal.writeSnapshot(users.all(), rooms.all(), reservations.all(), complaints.all(),
+                            reservationIds, complaintIds, userIds);
+                } catch (RuntimeException e) {
+                    System.err.println("Journal snapshot failed: " + e);
+                }
+            });
+        }
+    }
+
+    // Removes a user together with their reservations and complaints
+    private List<Reservation> deleteUserData(User user) {
+        List<Reservation> removed = reservations.removeByUser(user.getUserId());
+        complaints.removeByUser(user.getName());
+        users.remove(user);
+        return removed;
+    }
+
+    public void close() {
+        calendarRoller.shutdownNow();
+        // A snapshot in progress finishes before the journal closes
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        events.close();
+        if (eventLog != null) {
+            try {
+                eventLog.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        journal.close();
+        archive.close();
+        loginGuard.shutdown();
+        metrics.close();
+    }
+
+    // Booking changes for downstream consumers; subscribe to receive them
+    public BookingEventBus events() {
+        return events;
+    }
+
+    // Per-operation call counts, failure reasons and latencies
+    public HotelMetrics metrics() {
+        return metrics;
+    }
+
+    // --- validation shared by every entry point ---
+
+    public static void validatePassword(String password) {
+        if (password.isEmpty()) throw new IllegalArgumentException("Password cannot be empty!");
+        if (!Validators.isStrongPassword(password)) {
+            throw new IllegalArgumentException("Password must be 6-20 characters and include at least one lowercase letter, one uppercase letter, and one digit.");
+        }
+    }
+
+    public static void validateName(String name) {
+        if (name.isEmpty()) throw new IllegalArgumentException("Name cannot be empty!");
+        if (name.length() < 2 || name.length() > 50)
+            throw new IllegalArgumentException("Name must be 2-50 characters!");
+        if (!Validators.isName(name))
+            throw new IllegalArgumentException("Name must contain only letters and spaces!");
+    }
+
+    public static void validateEmailFormat(String email) {
+        if (email.isEmpty()) throw new IllegalArgumentException("Email cannot be empty!");
+        if (email.length() < 5 || email.length() > 50)
+            throw new IllegalArgumentException("Email must be 5-50 characters!");
+        if (!Validators.isEmail(email))
+            throw new IllegalArgumentException("Invalid email format! Use user@domain.com.");
+    }
+
+    // Format plus uniqueness; currentEmail (may be null) is allowed to stay as is
+    public void validateEmail(String email, String currentEmail) {
+        validateEmailFormat(email);
+        if (!email.equals(currentEmail) && users.isEmailTaken(email))
+            throw new IllegalArgumentException("Email is already registered!");
+    }
+
+    public static LocalDate parseCheckIn(String checkInStr) {
+        LocalDate checkIn = parseDate(checkInStr);
+        if (checkIn.isBefore(CURRENT_DATE))
+            throw new IllegalArgumentException("Check-in date cannot be in the past!");
+        return checkIn;
+    }
+
+    public static LocalDate parseCheckOut(String checkOutStr, LocalDate checkIn) {
+        LocalDate checkOut = parseDate(checkOutStr);
+        if (checkOut.isBefore(CURRENT_DATE))
+            throw new IllegalArgumentException("Check-out date cannot be in the past!");
+        if (!checkOut.isAfter(checkIn))
+            throw new IllegalArgumentException("Check-out date must be after check-in date!");
+        return checkOut;
+    }
+
+    public static LocalDate parseDate(String dateStr) {
+        if (!Validators.isIsoDate(dateStr))
+            throw new IllegalArgumentException("Invalid date format! Use YYYY-MM-DD.");
+        try {
+            return LocalDate.parse(dateStr);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format!");
+        }
+    }
+
+    // Menu choice 1-3 to room type
+    public static String roomTypeForChoice(int choice) {
+        switch (choice) {
+            case 1: return "Single";
+            case 2: return "Double";
+            case 3: return "Suite";
+            default: throw new IllegalArgumentException("Invalid room type! Choose 1-3.");
+        }
+    }
+
+    public static void validateRoomType(String roomType) {
+        switch (roomType) {
+            case "Single": case "Double": case "Suite": return;
+            default: throw new IllegalArgumentException("Invalid room type! Choose Single, Double or Suite.");
+        }
+    }
+
+    public static void validateCardHolder(String name) {
+        if (name.isEmpty()) throw new IllegalArgumentException("Card holder name cannot be empty!");
+        if (name.length() < 2 || name.length() > 50)
+            throw new IllegalArgumentException("Name must be 2-50 characters!");
+        if (!Validators.isName(name))
+            throw new IllegalArgumentException("Name must contain only letters and spaces!");
+    }
+
+    public static void validateCardNumber(String number) {
+        if (!Validators.isDigits(number, 16))
+            throw new IllegalArgumentException("Card number must be 16 digits!");
+        if (!Validators.passesLuhn(number))
+            throw new IllegalArgumentException("Invalid card number!");
+    }
+
+    public static void validateCvv(String cvv) {
+        if (!Validators.isCvv(cvv))
+            throw new IllegalArgumentException("CVV must be 3 digits!");
+    }
+
+    public static void validateExpiry(String expiry) {
+        if (!Validators.isExpiry(expiry))
+            throw new IllegalArgumentException("Expiry date must be in MM/YY format!");
+    }
+
+    // --- users ---
+
+    public User register(String password, String name, String email) {
+        validatePassword(password);
+        validateName(name);
+        validateEmail(email, null);
+        User user = new User(String.format("U%03d", userIds.next()), PasswordHasher.hash(password), false, name, email);
+        users.add(user);
+        journal.logRegister(user);
+        maybeSnapshot();
+        return user;
+    }
+
+    // Hashing is deliberately slow, so checks run through the LoginGuard's bounded
+    // pool and repeated failures for one user ID are refused without hashing
+    public User login(String userId, String password) {
+        long start = metrics.login.begin();
+        try {
+            User user = users.findById(userId);
+            if (!loginGuard.verify(userId, password, user == null ? null : user.getPasswordHash()))
+                throw new IllegalArgumentException("Invalid credentials!");
+            if (PasswordHasher.needsRehash(user.getPasswordHash())) user = rehash(user, password);
+            return metrics.login.done(start, user);
+        } catch (RuntimeException e) {
+            throw metrics.login.failed(start, e);
+        }
+    }
+
+    // Upgrades a legacy cleartext password or an outdated iteration count
+    private User rehash(User user, String password) {
+        User updated = new User(user.getUserId(), PasswordHasher.hash(password),
+                user.isAdmin(), user.getName(), user.getEmail());
+        users.remove(user);
+        users.add(updated);
+        journal.logUpdateProfile(updated);
+        maybeSnapshot();
+        return updated;
+    }
+
+    // --- sessions ---
+
+    // Checks the password once and returns a token for resolveSession
+    public String openSession(String userId, String password) {
+        return sessions.create(login(userId, password).getUserId());
+    }
+
+    // The current user behind a token, without a password check; a profile update is
+    // seen by the next call, a deleted profile ends the session
+    public User resolveSession(String token) {
+        String userId = token == null ? null : sessions.resolve(token);
+        User user = userId == null ? null : users.findById(userId);
+        if (user == null) throw new IllegalArgumentException("Session expired, please log in again!");
+        return user;
+    }
+
+    public void closeSession(String token) {
+        sessions.invalidate(token);
+    }
+
+    public long sessionIdleMillis() {
+        return sessions.getIdleMillis();
+    }
+
+    public boolean userExists(String userId) {
+        return users.exists(userId);
+    }
+
+    public void requireUser(String userId) {
+        if (userId.isEmpty()) throw new IllegalArgumentException("User ID cannot be empty!");
+        if (!users.exists(userId)) throw new IllegalArgumentException("User ID does not exist!");
+    }
+
+    // Null arguments keep the current value
+    public User updateProfile(User actor, String newName, String newEmail, String newPassword) {
+        String name = newName == null ? actor.getName() : newName;
+        String email = newEmail == null ? actor.getEmail() : newEmail;
+        validateName(name);
+        validateEmail(email, actor.getEmail());
+        if (newPassword != null && (newPassword.length() < 6 || newPassword.length() > 20))
+            throw new IllegalArgumentException("Password must be 6-20 characters!");
+        User updated = new User(actor.getUserId(),
+                newPassword == null ? actor.getPasswordHash() : PasswordHasher.hash(newPassword), // Blank keeps current password
+                actor.isAdmin(), name, email);
+        users.remove(actor);
+        users.add(updated);
+        journal.logUpdateProfile(updated);
+        maybeSnapshot();
+        return updated;
+    }
+
+    public void deleteProfile(User actor) {
+        List<Reservation> cancelled = deleteUserData(actor);
+        sessions.invalidateUser(actor.getUserId());
+        journal.logDeleteProfile(actor.getUserId());
+        events.publishReservations(BookingEvent.Type.CANCELLED, cancelled);
+        events.publishUserDeleted(actor.getUserId());
+        maybeSnapshot();
+    }
+
+    // --- reservations ---
+
+    public Reservation reserve(User actor, LocalDate checkIn, LocalDate checkOut, String roomType) {
+        long start = metrics.reserve.begin();
+        try {
+            validateStay(checkIn, checkOut);
+            validateRoomType(roomType);
+            Reservation r = bookingEngine.reserve(actor.getUserId(), roomType, checkIn, checkOut, false);
+            maybeSnapshot();
+            return metrics.reserve.done(start, r);
+        } catch (RuntimeException e) {
+            throw metrics.reserve.failed(start, e);
+        }
+    }
+
+    // Admin booking on behalf of a user; also marks the room occupied
+    public Reservation bookForUser(String userId, LocalDate checkIn, LocalDate checkOut, String roomType) {
+        long start = metrics.bookForUser.begin();
+        try {
+            validateStay(checkIn, checkOut);
+            requireUser(userId);
+            validateRoomType(roomType);
+            Reservation r = bookingEngine.reserve(userId, roomType, checkIn, checkOut, true);
+            maybeSnapshot();
+            return metrics.bookForUser.done(start, r);
+        } catch (RuntimeException e) {
+            throw metrics.bookForUser.failed(start, e);
+        }
+    }
+
+    private static void validateStay(LocalDate checkIn, LocalDate checkOut) {
+        if (checkIn.isBefore(CURRENT_DATE))
+            throw new IllegalArgumentException("Check-in date cannot be in the past!");
+        if (checkOut.isBefore(CURRENT_DATE))
+            throw new IllegalArgumentException("Check-out date cannot be in the past!");
+        if (!checkOut.isAfter(checkIn))
+            throw new IllegalArgumentException("Check-out date must be after check-in date!");
+    }
+
+    // Rooms free for the whole stay, cheapest first. type, place and the price bounds
+    // may be null for no restriction.
+    public List<Room> searchRooms(String type, String place, Double minPrice, Double maxPrice,
+                                  LocalDate checkIn, LocalDate checkOut, int limit) {
+        long start = metrics.searchRooms.begin();
+        try {
+            validateStay(checkIn, checkOut);
+            if (limit < 1) throw new IllegalArgumentException("Limit must be at least 1!");
+            return metrics.searchRooms.done(start, roomSearch.search(type, place,
+                    minPrice == null ? 0.0 : minPrice, maxPrice == null ? Double.MAX_VALUE : maxPrice,
+                    Reservation.toEpochDay(checkIn), Reservation.toEpochDay(checkOut), limit));
+        } catch (RuntimeException e) {
+            throw metrics.searchRooms.failed(start, e);
+        }
+    }
+
+    // What a stay in this room would cost at today's rates, in cents
+    public long quoteStay(Room room, LocalDate checkIn, LocalDate checkOut) {
+        return pricing.quote(room, Reservation.toEpochDay(checkIn), Reservation.toEpochDay(checkOut));
+    }
+
+    // Books count of the cheapest matching rooms for the same stay, or none at all
+    public List<Reservation> reserveGroup(User actor, String type, String place, Double maxPrice,
+                                          LocalDate checkIn, LocalDate checkOut, int count) {
+        validateStay(checkIn, checkOut);
+        if (count < 1) throw new IllegalArgumentException("Room count must be at least 1!");
+        List<Reservation> booked = bookingEngine.reserveGroup(actor.getUserId(),
+                roomSearch.candidates(type, place, 0.0, maxPrice == null ? Double.MAX_VALUE : maxPrice),
+                checkIn, checkOut, count);
+        maybeSnapshot();
+        return booked;
+    }
+
+    // Bulk-loads reservations from a CSV or JSON-lines feed; rejected lines go to
+    // rejectsFile when it is not null
+    public ImportReport importReservations(Path file, Path rejectsFile) throws IOException {
+        ReservationImporter importer = new ReservationImporter(bookingEngine, users,
+                Runtime.getRuntime().availableProcessors());
+        ImportReport report;
+        if (rejectsFile == null) {
+            report = importer.importFile(file, null);
+        } else {
+            try (Writer rejects = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8)) {
+                report = importer.importFile(file, rejects);
+            }
+        }
+        // Compacted once at the end rather than every few thousand rows mid-import
+        maybeSnapshot();
+        return report;
+    }
+
+    // An upcoming reservation the actor may change: their own, or any for admins
+    public Reservation findModifiable(User actor, int reservationId) {
+        int today = Reservation.toEpochDay(LocalDate.now());
+        Reservation r = reservations.findById(reservationId);
+        if (r == null || !(r.getUserId().equals(actor.getUserId()) || actor.isAdmin()) || r.getCheckInDay() < today)
+            throw new IllegalArgumentException("Reservation not found or not an upcoming booking.");
+        return r;
+    }
+
+    // Returns the conflicting reservations; an empty list means the dates were changed
+    public List<Reservation> changeDates(User actor, int reservationId, LocalDate newCheckIn, LocalDate newCheckOut) {
+        long start = metrics.changeDates.begin();
+        try {
+            validateStay(newCheckIn, newCheckOut);
+            Reservation r = findModifiable(actor, reservationId);
+            List<Reservation> conflicts = bookingEngine.changeDates(r, newCheckIn, newCheckOut);
+            if (conflicts.isEmpty()) maybeSnapshot();
+            return metrics.changeDates.done(start, conflicts);
+        } catch (RuntimeException e) {
+            throw metrics.changeDates.failed(start, e);
+        }
+    }
+
+    public void cancel(User actor, int reservationId) {
+        long start = metrics.cancel.begin();
+        try {
+            bookingEngine.cancel(findModifiable(actor, reservationId));
+            maybeSnapshot();
+            metrics.cancel.done(start);
+        } catch (RuntimeException e) {
+            throw metrics.cancel.failed(start, e);
+        }
+    }
+
+    // The bill for one of the actor's own reservations
+    public Invoice checkoutQuote(User actor, int reservationId) {
+        return checkoutInvoice(ownReservation(actor, reservationId));
+    }
+
+    private Reservation ownReservation(User actor, int reservationId) {
+        Reservation r = reservations.findById(reservationId);
+        if (r == null || !r.getUserId().equals(actor.getUserId()))
+            throw new IllegalArgumentException("Reservation not found or not yours!");
+        return r;
+    }
+
+    private Invoice checkoutInvoice(Reservation r) {
+        Room room = rooms.findByNumber(r.getRoomNumber());
+        if (room == null) throw new IllegalStateException("Internal error: Room not found!");
+        return new Invoice(r, room);
+    }
+
+    // Completes a paid checkout: archives the reservation and vacates the room
+    public Invoice checkout(User actor, int reservationId) {
+        long start = metrics.checkout.begin();
+        try {
+            // The reservation that was quoted is the one checked out, even if a racing
+            // checkout removes it from the repository in between
+            Reservation r = ownReservation(actor, reservationId);
+            Invoice invoice = checkoutInvoice(r);
+            bookingEngine.checkout(r);
+            maybeSnapshot();
+            return metrics.checkout.done(start, invoice);
+        } catch (RuntimeException e) {
+            throw metrics.checkout.failed(start, e);
+        }
+    }
+
+    public Invoice invoice(String userId, int reservationId) {
+        requireUser(userId);
+        Reservation r = reservations.findById(reservationId);
+        if (r == null || !r.getUserId().equals(userId))
+            throw new IllegalArgumentException("Reservation not found for this user!");
+        return new Invoice(r, rooms.findByNumber(r.getRoomNumber()));
+    }
+
+    public int reservationCount() {
+        return reservations.size();
+    }
+
+    // --- queries ---
+
+    public List<RoomStatus> roomStatus(LocalDate date) {
+        long start = metrics.roomStatus.begin();
+        try {
+            if (date.isBefore(CURRENT_DATE))
+                throw new IllegalArgumentException("You can only check status for today or a future date!");
+            return metrics.roomStatus.done(start, roomStatus(rooms.all(), date));
+        } catch (RuntimeException e) {
+            throw metrics.roomStatus.failed(start, e);
+        }
+    }
+
+    // One bit test and one nextClearBit per room for dates inside the calendar horizon;
+    // "available from" is the first date on or after the query date a stay could start
+    static List<RoomStatus> roomStatus(Collection<Room> roomList, LocalDate date) {
+        int queryDay = Reservation.toEpochDay(date);
+        List<RoomStatus> result = new ArrayList<>(roomList.size());
+        for (Room r : roomList) {
+            ReservationIntervalIndex index = r.getReservationIndex();
+            result.add(new RoomStatus(r, date, index.isOccupied(queryDay),
+                    LocalDate.ofEpochDay(index.nextFreeDay(queryDay))));
+        }
+        return result;
+    }
+
+    // The same a page at a time, in room order; the cursor is the number of rooms already returned
+    public Page<RoomStatus> roomStatus(LocalDate date, String cursor, int limit) {
+        long start = metrics.roomStatus.begin();
+        try {
+            if (date.isBefore(CURRENT_DATE))
+                throw new IllegalArgumentException("You can only check status for today or a future date!");
+            return metrics.roomStatus.done(start, roomStatus(rooms.all(), date, cursor, limit));
+        } catch (RuntimeException e) {
+            throw metrics.roomStatus.failed(start, e);
+        }
+    }
+
+    static Page<RoomStatus> roomStatus(Collection<Room> roomList, LocalDate date, String cursor, int limit) {
+        validateLimit(limit);
+        int skip = cursor == null ? 0 : parseCursor(cursor);
+        int queryDay = Reservation.toEpochDay(date);
+        List<RoomStatus> rows = new ArrayList<>(Math.min(limit, roomList.size()));
+        int position = 0;
+        for (Room r : roomList) {
+            if (position++ < skip) continue;
+            if (rows.size() == limit) return new Page<>(rows, String.valueOf(skip + limit));
+            ReservationIntervalIndex index = r.getReservationIndex();
+            rows.add(new RoomStatus(r, date, index.isOccupied(queryDay),
+                    LocalDate.ofEpochDay(index.nextFreeDay(queryDay))));
+        }
+        return new Page<>(rows, null);
+    }
+
+    // First date from today on which a new stay in the room could start
+    static LocalDate getEarliestAvailableDate(Room room) {
+        return LocalDate.ofEpochDay(room.getReservationIndex().nextFreeDay(Reservation.toEpochDay(CURRENT_DATE)));
+    }
+
+    // Upcoming bookings the actor may see, in booking order: all for admins, own otherwise
+    public Page<Reservation> upcoming(User actor, String cursor, int limit) {
+        return upcomingPage(actor.isAdmin() ? null : actor.getUserId(), cursor, limit);
+    }
+
+    public Page<Reservation> upcomingFor(String userId, String cursor, int limit) {
+        requireUser(userId);
+        return upcomingPage(userId, cursor, limit);
+    }
+
+    // userId == null means all users; the cursor is the last reservation ID returned
+    private Page<Reservation> upcomingPage(String userId, String cursor, int limit) {
+        validateLimit(limit);
+        int afterId = cursor == null ? 0 : parseCursor(cursor);
+        int today = Reservation.toEpochDay(LocalDate.now());
+        List<Reservation> rows = new ArrayList<>(Math.min(limit, 256));
+        for (Reservation r : userId == null ? reservations.allAfter(afterId)
+                : reservations.findByUserAfter(userId, afterId)) {
+            if (r.getCheckInDay() < today) continue;
+            if (rows.size() == limit) return new Page<>(rows, String.valueOf(rows.get(limit - 1).getReservationId()));
+            rows.add(r);
+        }
+        return new Page<>(rows, null);
+    }
+
+    // Past bookings the actor may see, followed by checked-out ones from the archive
+    public Page<BookingRecord> history(User actor, String cursor, int limit) {
+        return historyPage(metrics.history.begin(), actor.isAdmin() ? null : actor.getUserId(), cursor, limit);
+    }
+
+    public Page<BookingRecord> historyFor(String userId, String cursor, int limit) {
+        long start = metrics.history.begin();
+        try {
+            requireUser(userId);
+        } catch (RuntimeException e) {
+            throw metrics.history.failed(start, e);
+        }
+        return historyPage(start, userId, cursor, limit);
+    }
+
+    // userId == null means all users. Cursors are "r<last reservation ID>" while live
+    // reservations are being returned, then "a<next archive row>". start is the
+    // caller's metrics.history.begin().
+    private Page<BookingRecord> historyPage(long start, String userId, String cursor, int limit) {
+        try {
+            return metrics.history.done(start, historyRows(userId, cursor, limit));
+        } catch (RuntimeException e) {
+            throw metrics.history.failed(start, e);
+        }
+    }
+
+    private Page<BookingRecord> historyRows(String userId, String cursor, int limit) {
+        validateLimit(limit);
+        List<BookingRecord> rows = new ArrayList<>(Math.min(limit, 256));
+        int archiveRow = 0;
+        if (cursor == null || cursor.startsWith("r")) {
+            int afterId = cursor == null ? 0 : parseCursor(cursor.substring(1));
+            int today = Reservation.toEpochDay(LocalDate.now());
+            for (Reservation r : userId == null ? reservations.allAfter(afterId)
+                    : reservations.findByUserAfter(userId, afterId)) {
+                if (r.getCheckInDay() >= today) continue;
+                if (rows.size() == limit) return new Page<>(rows, "r" + rows.get(limit - 1).getReservationId());
+                rows.add(BookingRecord.of(r));
+            }
+        } else if (cursor.startsWith("a")) {
+            archiveRow = parseCursor(cursor.substring(1));
+        } else {
+            throw new IllegalArgumentException("Invalid cursor!");
+        }
+        int ordinal = userId == null ? -1 : ReservationArchive.userOrdinal(userId);
+        for (int row = archiveRow; row < archive.size(); row++) {
+            int rowUser = archive.userOrdinal(row);
+            if (ordinal != -1 && rowUser != ordinal) continue;
+            if (rows.size() == limit) return new Page<>(rows, "a" + row);
+            rows.add(new BookingRecord(archive.reservationId(row), archive.checkInDay(row),
+                    archive.checkOutDay(row), archive.roomNumber(row), archive.billCents(row),
+                    String.format("U%03d", rowUser), true));
+        }
+        return new Page<>(rows, null);
+    }
+
+    private static void validateLimit(int limit) {
+        if (limit < 1) throw new IllegalArgumentException("Limit must be at least 1!");
+    }
+
+    private static int parseCursor(String cursor) {
+        if (!Validators.isDigits(cursor, 1, 9)) throw new IllegalArgumentException("Invalid cursor!");
+        return Integer.parseInt(cursor);
+    }
+
+    // --- complaints ---
+
+    public Complaint fileComplaint(User actor, String contact, String room, String type, int rating) {
+        long start = metrics.fileComplaint.begin();
+        try {
+            validateContact(contact);
+            validateComplaintRoom(room);
+            int roomNumber = Integer.parseInt(room);
+            if (rooms.findByNumber(roomNumber) == null) throw new IllegalArgumentException("Room not found!");
+            validateComplaintType(type);
+            validateRating(rating);
+            Complaint complaint = new Complaint(complaintIds.next(), actor.getName(), contact, roomNumber, type, rating,
+                    Reservation.toEpochDay(LocalDate.now()));
+            complaints.add(complaint);
+            journal.logComplaint(complaint);
+            maybeSnapshot();
+            return metrics.fileComplaint.done(start, complaint);
+        } catch (RuntimeException e) {
+            throw metrics.fileComplaint.failed(start, e);
+        }
+    }
+
+    public static void validateContact(String contact) {
+        if (!Validators.isPhone(contact))
+            throw new IllegalArgumentException("Contact number must be 10 digits!");
+    }
+
+    public static void validateComplaintRoom(String room) {
+        // Four digits for the chain's places numbered from 1000 (see SAMPLE_PLACES)
+        if (!Validators.isDigits(room, 1, 4))
+            throw new IllegalArgumentException("Room number must be 1-9999!");
+    }
+
+    public static void validateComplaintType(String type) {
+        if (type.isEmpty()) throw new IllegalArgumentException("Complaint type cannot be empty!");
+        if (type.length() < 3) throw new IllegalArgumentException("Complaint type must be at least 3 characters!");
+    }
+
+    public static void validateRating(int rating) {
+        if (rating < 1 || rating > 5)
+            throw new IllegalArgumentException("Rating must be between 1 and 5!");
+    }
+
+    // Complaints in filing order; the cursor is the last complaint ID returned
+    public Page<Complaint> complaints(String cursor, int limit) {
+        validateLimit(limit);
+        int afterId = cursor == null ? 0 : parseCursor(cursor);
+        List<Complaint> rows = new ArrayList<>(Math.min(limit, 256));
+        for (Complaint c : complaints.allAfter(afterId)) {
+            if (rows.size() == limit) return new Page<>(rows, String.valueOf(rows.get(limit - 1).getComplaintId()));
+            rows.add(c);
+        }
+        return new Page<>(rows, null);
+    }
+
+    // Occupancy, ADR, RevPAR and revenue for the nights [from, to), over live and archived stays
+    public List<AnalyticsRow> analytics(LocalDate from, LocalDate to, HotelAnalytics.Period period,
+                                        HotelAnalytics.GroupBy groupBy) {
+        if (!to.isAfter(from)) throw new IllegalArgumentException("End date must be after start date!");
+        if (ChronoUnit.DAYS.between(from, to) > MAX_ANALYTICS_DAYS)
+            throw new IllegalArgumentException("Analytics range cannot exceed " + MAX_ANALYTICS_DAYS + " days!");
+        OccupancySnapshot snapshot = OccupancySnapshot.capture(rooms.all(), reservations.all(), archive);
+        return HotelAnalytics.report(snapshot, Reservation.toEpochDay(from), Reservation.toEpochDay(to), period, groupBy);
+    }
+
+    // Complaint dashboards: the worst rooms and commonest types filed in month (null
+    // for all time), read from the store's running aggregates
+    public List<Map.Entry<Integer, RatingStats>> topComplaintRooms(YearMonth month, int limit) {
+        return complaints.topRooms(month, limit);
+    }
+
+    public List<Map.Entry<String, RatingStats>> topComplaintTypes(YearMonth month, int limit) {
+        return complaints.topTypes(month, limit);
+    }
+
+    public RatingStats complaintStats(int roomNumber) {
+        return complaints.roomStats(roomNumber);
+    }
+
+    // Newest first, complaints whose type contains every word of the query
+    public List<Complaint> searchComplaints(String query, int limit) {
+        validateLimit(limit);
+        return complaints.search(query, limit);
+    }
+}
@@ -0,0 +1,15 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lock-free, monotonically increasing ID source. IDs are never reused, even
+// after the entity holding one is removed; the high-water mark is written to
+// every journal snapshot so it also survives restarts.
+public class IdGenerator {
+    private final AtomicInteger last = new AtomicInteger();
+
+    public int next() { return last.incrementAndGet(); }
+
+    // Records an ID that was issued elsewhere (replay, archive, seed data)
+    public void markUsed(int id) { last.accumulateAndGet(id, Math::max); }
+
+    public int current() { return last.get(); }
+}
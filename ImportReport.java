@@ -0,0 +1,30 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a bulk reservation import: counts plus the first few rejections
+public class ImportReport {
+    public static final int MAX_SAMPLES = 100;
+
+    private long accepted;
+    private long rejected;
+    private final List<String> sampleRejections = new ArrayList<>();
+
+    void accept(int count) {
+        accepted += count;
+    }
+
+    void reject(long lineNumber, String reason) {
+        rejected++;
+        if (sampleRejections.size() < MAX_SAMPLES) sampleRejections.add("line " + lineNumber + ": " + reason);
+    }
+
+    public long getAccepted() { return accepted; }
+    public long getRejected() { return rejected; }
+    public List<String> getSampleRejections() { return Collections.unmodifiableList(sampleRejections); }
+
+    @Override
+    public String toString() {
+        return "accepted=" + accepted + " rejected=" + rejected;
+    }
+}
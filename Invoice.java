@@ -0,0 +1,42 @@
+import java.time.LocalDate;
+
+// Billing summary for one reservation
+public class Invoice {
+    private final int reservationId;
+    private final LocalDate checkIn;
+    private final LocalDate checkOut;
+    private final int roomNumber;
+    private final String roomType;
+    private final int nights;
+    private final long amountCents;
+
+    public Invoice(Reservation r, Room room) {
+        this.reservationId = r.getReservationId();
+        this.checkIn = r.getCheckIn();
+        this.checkOut = r.getCheckOut();
+        this.roomNumber = r.getRoomNumber();
+        this.roomType = room != null ? room.getType() : "Unknown";
+        this.nights = r.getNights();
+        this.amountCents = r.getBillCents();
+    }
+
+    public int getReservationId() { return reservationId; }
+    public LocalDate getCheckIn() { return checkIn; }
+    public LocalDate getCheckOut() { return checkOut; }
+    public int getRoomNumber() { return roomNumber; }
+    public String getRoomType() { return roomType; }
+    public int getNights() { return nights; }
+    public long getAmountCents() { return amountCents; }
+
+    // The printed invoice, appended without String.format so bulk runs stay cheap
+    public StringBuilder appendTo(StringBuilder sb) {
+        String newline = System.lineSeparator();
+        sb.append("Invoice - ID: ").append(reservationId).append(newline)
+                .append("Check-in: ").append(checkIn).append(newline)
+                .append("Check-out: ").append(checkOut).append(newline)
+                .append("Room: ").append(roomNumber).append(newline)
+                .append("Type: ").append(roomType).append(newline)
+                .append("Amount: $");
+        return Money.append(sb, amountCents);
+    }
+}
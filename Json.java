@@ -0,0 +1,272 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Minimal JSON support for the HTTP front end: parses flat objects of string,
+// number and boolean values, and builds objects/arrays into a StringBuilder. The
+// partition router also splits arrays into their elements and reads the top-level
+// fields of objects whose nested values it passes through untouched.
+public class Json {
+    private final StringBuilder out;
+    private boolean needsComma = false;
+
+    public Json() {
+        this(new StringBuilder(128));
+    }
+
+    private Json(StringBuilder out) {
+        this.out = out;
+    }
+
+    public Json beginObject() { separate(); out.append('{'); needsComma = false; return this; }
+    public Json endObject() { out.append('}'); needsComma = true; return this; }
+    public Json beginArray() { separate(); out.append('['); needsComma = false; return this; }
+    public Json endArray() { out.append(']'); needsComma = true; return this; }
+
+    public Json name(String name) {
+        separate();
+        quote(name);
+        out.append(':');
+        needsComma = false;
+        return this;
+    }
+
+    public Json value(String value) {
+        separate();
+        if (value == null) out.append("null");
+        else quote(value);
+        needsComma = true;
+        return this;
+    }
+
+    public Json value(long value) { separate(); out.append(value); needsComma = true; return this; }
+    public Json value(boolean value) { separate(); out.append(value); needsComma = true; return this; }
+
+    // Decimals are written with two fraction digits, whatever the default locale
+    public Json value(double value) {
+        return money(Money.ofDollars(value));
+    }
+
+    // An amount in cents, written as a decimal number of dollars
+    public Json money(long cents) {
+        separate();
+        Money.append(out, cents);
+        needsComma = true;
+        return this;
+    }
+
+    public Json field(String name, String value) { return name(name).value(value); }
+    public Json field(String name, long value) { return name(name).value(value); }
+    public Json field(String name, boolean value) { return name(name).value(value); }
+    public Json field(String name, double value) { return name(name).value(value); }
+    public Json moneyField(String name, long cents) { return name(name).money(cents); }
+
+    // Already-encoded JSON, e.g. an element of a parsed array
+    public Json raw(String json) {
+        separate();
+        out.append(json);
+        needsComma = true;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void separate() {
+        if (needsComma) out.append(',');
+    }
+
+    private void quote(String s) {
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    // Parses {"key": value, ...} with scalar values only; every value is returned as
+    // its text (strings unescaped, numbers/booleans verbatim, null as null).
+    public static Map<String, String> parseObject(String text) {
+        Parser p = new Parser(text);
+        Map<String, String> result = new LinkedHashMap<>();
+        p.skipWhitespace();
+        if (p.pos == text.length()) return result; // Empty body
+        p.expect('{');
+        p.skipWhitespace();
+        if (p.peek() == '}') {
+            p.pos++;
+            return result;
+        }
+        while (true) {
+            p.skipWhitespace();
+            String key = p.string();
+            p.skipWhitespace();
+            p.expect(':');
+            p.skipWhitespace();
+            result.put(key, p.scalar());
+            p.skipWhitespace();
+            char c = p.next();
+            if (c == '}') break;
+            if (c != ',') throw new IllegalArgumentException("Malformed JSON: expected ',' or '}'!");
+        }
+        p.skipWhitespace();
+        if (p.pos != text.length()) throw new IllegalArgumentException("Malformed JSON: trailing characters!");
+        return result;
+    }
+
+    // The elements of a JSON array as their own JSON texts
+    public static List<String> splitArray(String text) {
+        Parser p = new Parser(text);
+        List<String> result = new ArrayList<>();
+        p.skipWhitespace();
+        p.expect('[');
+        p.skipWhitespace();
+        if (p.peek() == ']') {
+            p.pos++;
+            return result;
+        }
+        while (true) {
+            p.skipWhitespace();
+            int start = p.pos;
+            p.skipValue();
+            result.add(text.substring(start, p.pos));
+            p.skipWhitespace();
+            char c = p.next();
+            if (c == ']') break;
+            if (c != ',') throw new IllegalArgumentException("Malformed JSON: expected ',' or ']'!");
+        }
+        return result;
+    }
+
+    // Like parseObject, but nested objects and arrays are allowed and returned as
+    // their JSON text
+    public static Map<String, String> parseFields(String text) {
+        Parser p = new Parser(text);
+        Map<String, String> result = new LinkedHashMap<>();
+        p.skipWhitespace();
+        p.expect('{');
+        p.skipWhitespace();
+        if (p.peek() == '}') return result;
+        while (true) {
+            p.skipWhitespace();
+            String key = p.string();
+            p.skipWhitespace();
+            p.expect(':');
+            p.skipWhitespace();
+            char first = p.peek();
+            if (first == '{' || first == '[') {
+                int start = p.pos;
+                p.skipValue();
+                result.put(key, text.substring(start, p.pos));
+            } else {
+                result.put(key, p.scalar());
+            }
+            p.skipWhitespace();
+            char c = p.next();
+            if (c == '}') break;
+            if (c != ',') throw new IllegalArgumentException("Malformed JSON: expected ',' or '}'!");
+        }
+        return result;
+    }
+
+    private static class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        char peek() {
+            if (pos >= text.length()) throw new IllegalArgumentException("Malformed JSON: unexpected end!");
+            return text.charAt(pos);
+        }
+
+        char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        void expect(char c) {
+            if (next() != c) throw new IllegalArgumentException("Malformed JSON: expected '" + c + "'!");
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case '"': case '\\': case '/': sb.append(e); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) throw new IllegalArgumentException("Malformed JSON: bad escape!");
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: throw new IllegalArgumentException("Malformed JSON: bad escape!");
+                }
+            }
+        }
+
+        // Steps over one value of any kind
+        void skipValue() {
+            char c = peek();
+            if (c == '"') {
+                string();
+            } else if (c == '{' || c == '[') {
+                int depth = 0;
+                do {
+                    c = peek();
+                    if (c == '"') {
+                        string();
+                        continue;
+                    }
+                    if (c == '{' || c == '[') depth++;
+                    if (c == '}' || c == ']') depth--;
+                    pos++;
+                } while (depth > 0);
+            } else {
+                scalar();
+            }
+        }
+
+        String scalar() {
+            if (peek() == '"') return string();
+            int start = pos;
+            while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) pos++;
+            String token = text.substring(start, pos);
+            if (token.isEmpty() || token.charAt(0) == '{' || token.charAt(0) == '[')
+                throw new IllegalArgumentException("Malformed JSON: only flat objects are supported!");
+            return token.equals("null") ? null : token;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencies in nanoseconds counted in log-linear buckets, as HdrHistogram does:
+// each power of two is split into 32 equal buckets, so any recorded value is
+// reported within about 3% whatever its size, in a fixed 15 KB table. Recording
+// is one atomic increment plus a sum and a max update, with no locks and no
+// allocation; readers walk the table while writers keep going, so a percentile
+// read mid-update may miss the odd value in flight.
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Enough buckets for every non-negative long
+    private static final int BUCKETS = (63 - SUB_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucket(nanos));
+        sum.add(nanos);
+        long seen = max.get();
+        while (nanos > seen && !max.compareAndSet(seen, nanos)) seen = max.get();
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        return total;
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    // The value at or below which the fraction q (0-1) of recordings fall: the top
+    // of the bucket holding that rank, capped at the largest value seen
+    public long percentile(double q) {
+        return percentiles(q)[0];
+    }
+
+    // Several percentiles in one pass over the table; qs must be ascending
+    public long[] percentiles(double... qs) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += snapshot[i] = counts.get(i);
+        long[] result = new long[qs.length];
+        if (total == 0) return result;
+        long seen = 0;
+        int bucket = 0;
+        for (int k = 0; k < qs.length; k++) {
+            long rank = Math.max(1, (long) Math.ceil(qs[k] * total));
+            while (bucket < BUCKETS - 1 && seen + snapshot[bucket] < rank) seen += snapshot[bucket++];
+            result[k] = Math.min(highestInBucket(bucket), max.get());
+        }
+        return result;
+    }
+
+    // Not atomic with concurrent recording: values recorded during a reset may survive it
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        sum.reset();
+        max.set(0);
+    }
+
+    // Values below 32 have a bucket each; above that, bucket by the highest set bit
+    // and the next five bits below it
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highestInBucket(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        long next = (sub + 1) << shift;
+        return next < 0 ? Long.MAX_VALUE : next - 1;
+    }
+}
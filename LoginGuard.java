@@ -0,0 +1,143 @@
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs password checks on a small bounded pool so a burst of logins can use at
+// most that many cores, leaving the rest to bookings; when the pool's queue is
+// full, further attempts are refused instead of piling up. Each user ID also gets
+// a limited number of failed attempts per window, after which attempts are refused
+// without hashing at all until the window passes.
+public class LoginGuard {
+    private static final int MAX_TRACKED_USERS = 100_000;
+
+    private final ThreadPoolExecutor executor;
+    private final int maxFailures;
+    private final long windowMillis;
+    private final Map<String, Failures> failures = new ConcurrentHashMap<>();
+
+    // Failed attempts for one user ID inside the current window, plus the attempts
+    // still being hashed, which count against the limit until they finish
+    private static class Failures {
+        long windowStart;
+        int count;
+        int inFlight;
+        // Dropped from the map; a caller holding it must look the user up again
+        boolean removed;
+    }
+
+    private enum Outcome { SUCCEEDED, FAILED, ABANDONED }
+
+    public LoginGuard() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 256, 5, 60_000);
+    }
+
+    public LoginGuard(int threads, int queueCapacity, int maxFailures, long windowMillis) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread t = new Thread(runnable, "login-verifier");
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.maxFailures = maxFailures;
+        this.windowMillis = windowMillis;
+    }
+
+    // Checks password against stored (null for an unknown user ID, which is still
+    // hashed against a dummy so it takes as long as a real check)
+    public boolean verify(String userId, String password, String stored) {
+        // Reserved before hashing, so parallel guesses can't all pass the check
+        // before any of their failures is recorded
+        Failures f = reserveAttempt(userId, System.currentTimeMillis());
+        boolean ok = false;
+        try {
+            Future<Boolean> result;
+            try {
+                result = executor.submit(() -> {
+                    if (stored != null) return PasswordHasher.verify(password, stored);
+                    PasswordHasher.verify(password, DummyHash.VALUE);
+                    return false;
+                });
+            } catch (RejectedExecutionException e) {
+                throw new IllegalArgumentException("Login service busy, try again later!");
+            }
+            try {
+                ok = result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Login interrupted!", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Login failed: " + e.getCause().getMessage(), e.getCause());
+            }
+            finishAttempt(userId, f, ok ? Outcome.SUCCEEDED : Outcome.FAILED, System.currentTimeMillis());
+            return ok;
+        } catch (RuntimeException e) {
+            // Refused or broken checks release their slot without counting as failures
+            finishAttempt(userId, f, Outcome.ABANDONED, System.currentTimeMillis());
+            throw e;
+        }
+    }
+
+    private Failures reserveAttempt(String userId, long now) {
+        if (failures.size() >= MAX_TRACKED_USERS) evictExpired(now);
+        while (true) {
+            Failures f = failures.computeIfAbsent(userId, k -> new Failures());
+            synchronized (f) {
+                if (f.removed) continue;
+                if (now - f.windowStart >= windowMillis) {
+                    f.windowStart = now;
+                    f.count = 0;
+                }
+                if (f.count + f.inFlight >= maxFailures)
+                    throw new IllegalArgumentException("Too many failed login attempts, try again later!");
+                f.inFlight++;
+                return f;
+            }
+        }
+    }
+
+    private void finishAttempt(String userId, Failures f, Outcome outcome, long now) {
+        synchronized (f) {
+            f.inFlight--;
+            if (outcome == Outcome.SUCCEEDED) {
+                f.count = 0;
+            } else if (outcome == Outcome.FAILED) {
+                if (now - f.windowStart >= windowMillis) {
+                    f.windowStart = now;
+                    f.count = 0;
+                }
+                f.count++;
+            }
+            if (f.count == 0 && f.inFlight == 0) {
+                f.removed = true;
+                failures.remove(userId, f);
+            }
+        }
+    }
+
+    private void evictExpired(long now) {
+        for (Iterator<Map.Entry<String, Failures>> it = failures.entrySet().iterator(); it.hasNext(); ) {
+            Failures f = it.next().getValue();
+            synchronized (f) {
+                if (now - f.windowStart >= windowMillis && f.inFlight == 0) {
+                    f.removed = true;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Created on first use so startup does not pay for a hash nobody needs
+    private static class DummyHash {
+        static final String VALUE = PasswordHasher.hash("unused-dummy-password");
+    }
+}
@@ -1,6 +1,73 @@
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class Main {
-    public static void main(String[] args) {
+    // java Main                     interactive console
+    // java Main --http [port]       JSON API on the given port (default 8080)
+    // java Main --node port url url2...
+    //                               partition node: serves the sample chain's places that
+    //                               hash to url (its own address) among all the node URLs,
+    //                               each from hotel-data/<place>
+    // java Main --router port url1 url2...
+    //                               routes and fans out requests over those nodes
+    // java Main --import file [rejects]
+    //                               bulk-load reservations from a CSV / JSON-lines feed
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--http")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+            HotelService service = new HotelService(Paths.get("hotel-data"));
+            HotelHttpServer server = new HotelHttpServer(service, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                service.close();
+            }));
+            server.start();
+            System.out.println("Hotel API listening on port " + server.getPort());
+            return;
+        }
+        if (args.length > 3 && args[0].equals("--node")) {
+            String self = args[2];
+            HashRing ring = new HashRing(Arrays.asList(args).subList(2, args.length));
+            Map<String, HotelService> places = new LinkedHashMap<>();
+            for (String place : HotelService.SAMPLE_PLACES) {
+                if (ring.nodeFor(place).equals(self)) {
+                    places.put(place, new HotelService(Paths.get("hotel-data", place),
+                            HotelService.sampleRooms(List.of(place)), place));
+                }
+            }
+            HotelHttpServer server = new HotelHttpServer(places, Integer.parseInt(args[1]));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                for (HotelService service : places.values()) service.close();
+            }));
+            server.start();
+            System.out.println("Hotel node " + self + " serving " + places.keySet() + " on port " + server.getPort());
+            return;
+        }
+        if (args.length > 2 && args[0].equals("--router")) {
+            HashRing ring = new HashRing(Arrays.asList(args).subList(2, args.length));
+            HotelRouter router = new HotelRouter(ring, HotelService.SAMPLE_PLACES, Integer.parseInt(args[1]));
+            Runtime.getRuntime().addShutdownHook(new Thread(router::stop));
+            router.start();
+            System.out.println("Hotel router listening on port " + router.getPort() + " for " + ring.nodes());
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--import")) {
+            HotelService service = new HotelService(Paths.get("hotel-data"));
+            try {
+                ImportReport report = service.importReservations(Paths.get(args[1]),
+                        args.length > 2 ? Paths.get(args[2]) : null);
+                System.out.println("Import finished: " + report);
+                for (String rejection : report.getSampleRejections()) System.out.println("  " + rejection);
+            } finally {
+                service.close();
+            }
+            return;
+        }
         HotelManagement hotelSystem = new HotelManagement();
         hotelSystem.displayMainMenu();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+// Amounts of money as a long count of cents. Sums and products are exact integer
+// arithmetic, so totals over many bills never drift, and formatting appends digits
+// straight into a StringBuilder without boxing, Formatter or locale lookups.
+public class Money {
+    private Money() {}
+
+    // Rounds half away from zero to the nearest cent
+    public static long ofDollars(double dollars) {
+        return Math.round(dollars * 100);
+    }
+
+    public static double toDollars(long cents) {
+        return cents / 100.0;
+    }
+
+    // cents * basisPoints / 10000 (10000 = x1.00), rounded half up
+    public static long scale(long cents, int basisPoints) {
+        return Math.floorDiv(cents * basisPoints + 5_000, 10_000);
+    }
+
+    // Appends e.g. "1234.50" or "-0.05"
+    public static StringBuilder append(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+            // Long.MIN_VALUE has no positive counterpart; no real amount comes near it
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        sb.append(cents / 100).append('.');
+        if (fraction < 10) sb.append('0');
+        return sb.append(fraction);
+    }
+
+    // "1234.50"; callers add the currency sign
+    public static String format(long cents) {
+        return append(new StringBuilder(16), cents).toString();
+    }
+}
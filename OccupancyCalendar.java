@@ -0,0 +1,82 @@
+import java.util.BitSet;
+
+// Day-granular bitmaps of one room's bookings over [startDay, startDay + horizon).
+// "nights" has a bit per night stayed ([checkIn, checkOut)), which is what room
+// status reports; "blocked" also covers the check-out day ([checkIn, checkOut]),
+// matching the inclusive overlap rule new bookings are checked against.
+// Days outside the horizon are not tracked; callers fall back to the interval index.
+// The window rolls forward with rebase as days pass, so it keeps covering the
+// next two years rather than a fixed range.
+// Not thread-safe: guarded by the owning ReservationIntervalIndex.
+public class OccupancyCalendar {
+    public static final int DEFAULT_HORIZON_DAYS = 730;
+
+    private int startDay;
+    private final int horizon;
+    private BitSet nights;
+    private BitSet blocked;
+
+    public OccupancyCalendar(int startDay, int horizon) {
+        this.startDay = startDay;
+        this.horizon = horizon;
+        this.nights = new BitSet(horizon);
+        this.blocked = new BitSet(horizon);
+    }
+
+    public int getStartDay() { return startDay; }
+    public int getEndDay() { return startDay + horizon; }
+
+    public boolean covers(int day) {
+        return day >= startDay && day < startDay + horizon;
+    }
+
+    public boolean covers(int fromDay, int toDay) {
+        return fromDay >= startDay && toDay < startDay + horizon;
+    }
+
+    // Moves the window to start at newStartDay, dropping the days before it. The
+    // days that come into range at the end start out free; the caller marks the
+    // stays that reach them. Returns false if newStartDay is not later.
+    public boolean rebase(int newStartDay) {
+        int shift = newStartDay - startDay;
+        if (shift <= 0) return false;
+        nights = shift >= horizon ? new BitSet(horizon) : nights.get(shift, horizon);
+        blocked = shift >= horizon ? new BitSet(horizon) : blocked.get(shift, horizon);
+        startDay = newStartDay;
+        return true;
+    }
+
+    public void mark(int checkInDay, int checkOutDay) {
+        set(nights, checkInDay, checkOutDay, true);
+        set(blocked, checkInDay, checkOutDay + 1, true);
+    }
+
+    public void clear(int checkInDay, int checkOutDay) {
+        set(nights, checkInDay, checkOutDay, false);
+        set(blocked, checkInDay, checkOutDay + 1, false);
+    }
+
+    // Only meaningful for covered days
+    public boolean isOccupied(int day) {
+        return nights.get(day - startDay);
+    }
+
+    // True if any day in [fromDay, toDay] is blocked; both must be covered
+    public boolean isBlocked(int fromDay, int toDay) {
+        int next = blocked.nextSetBit(fromDay - startDay);
+        return next != -1 && next <= toDay - startDay;
+    }
+
+    // First day >= fromDay that no stay touches, or -1 if there is none inside the horizon
+    public int nextFreeDay(int fromDay) {
+        int bit = blocked.nextClearBit(Math.max(0, fromDay - startDay));
+        return bit < horizon ? startDay + bit : -1;
+    }
+
+    // Sets [fromDay, toDay) clipped to the horizon
+    private void set(BitSet bits, int fromDay, int toDay, boolean value) {
+        int from = Math.max(0, fromDay - startDay);
+        int to = Math.min(horizon, toDay - startDay);
+        if (from < to) bits.set(from, to, value);
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Every stay, live and checked out, copied into parallel primitive arrays, with
+// each room's type and place reduced to small integer codes. Analytics scans only
+// touch these arrays, so they can split them across threads without locks or
+// Reservation objects. Live reservations are read without their room locks: a
+// stay whose dates change while it is captured may show either version.
+public class OccupancySnapshot {
+    final String[] types;
+    final String[] places;
+    // Indexed by room position
+    final int[] roomType;
+    final int[] roomPlace;
+    // Indexed by stay
+    final int[] room;
+    final int[] checkIn;
+    final int[] checkOut;
+    final long[] billCents;
+    final int size;
+
+    OccupancySnapshot(String[] types, String[] places, int[] roomType, int[] roomPlace,
+                      int[] room, int[] checkIn, int[] checkOut, long[] billCents, int size) {
+        this.types = types;
+        this.places = places;
+        this.roomType = roomType;
+        this.roomPlace = roomPlace;
+        this.room = room;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.billCents = billCents;
+        this.size = size;
+    }
+
+    // Stays in rooms that no longer exist are left out
+    public static OccupancySnapshot capture(Collection<Room> rooms, Collection<Reservation> live,
+                                            ReservationArchive archive) {
+        Map<String, Integer> typeCodes = new LinkedHashMap<>();
+        Map<String, Integer> placeCodes = new LinkedHashMap<>();
+        Room[] byNumber = rooms.toArray(new Room[0]);
+        Arrays.sort(byNumber, (a, b) -> Integer.compare(a.getRoomNumber(), b.getRoomNumber()));
+        int[] numbers = new int[byNumber.length];
+        int[] roomType = new int[byNumber.length];
+        int[] roomPlace = new int[byNumber.length];
+        for (int i = 0; i < byNumber.length; i++) {
+            numbers[i] = byNumber[i].getRoomNumber();
+            roomType[i] = typeCodes.computeIfAbsent(byNumber[i].getType(), k -> typeCodes.size());
+            roomPlace[i] = placeCodes.computeIfAbsent(byNumber[i].getPlace(), k -> placeCodes.size());
+        }
+
+        int archived = archive == null ? 0 : archive.size();
+        Builder b = new Builder(Math.max(16, archived + 1024));
+        for (Reservation r : live) {
+            b.add(Arrays.binarySearch(numbers, r.getRoomNumber()), r.getCheckInDay(), r.getCheckOutDay(), r.getBillCents());
+        }
+        for (int row = 0; row < archived; row++) {
+            b.add(Arrays.binarySearch(numbers, archive.roomNumber(row)), archive.checkInDay(row),
+                    archive.checkOutDay(row), archive.billCents(row));
+        }
+        return new OccupancySnapshot(typeCodes.keySet().toArray(new String[0]),
+                placeCodes.keySet().toArray(new String[0]), roomType, roomPlace,
+                b.room, b.checkIn, b.checkOut, b.billCents, b.size);
+    }
+
+    public int size() { return size; }
+    public int roomCount() { return roomType.length; }
+
+    // Growable columns; rooms not found (negative index) are skipped
+    private static final class Builder {
+        int[] room;
+        int[] checkIn;
+        int[] checkOut;
+        long[] billCents;
+        int size;
+
+        Builder(int capacity) {
+            room = new int[capacity];
+            checkIn = new int[capacity];
+            checkOut = new int[capacity];
+            billCents = new long[capacity];
+        }
+
+        void add(int roomIndex, int in, int out, long bill) {
+            if (roomIndex < 0) return;
+            if (size == room.length) {
+                int capacity = size + (size >> 1);
+                room = Arrays.copyOf(room, capacity);
+                checkIn = Arrays.copyOf(checkIn, capacity);
+                checkOut = Arrays.copyOf(checkOut, capacity);
+                billCents = Arrays.copyOf(billCents, capacity);
+            }
+            room[size] = roomIndex;
+            checkIn[size] = in;
+            checkOut[size] = out;
+            billCents[size] = bill;
+            size++;
+        }
+    }
+}
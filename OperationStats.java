@@ -0,0 +1,90 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and a latency histogram for one service operation. Callers bracket the
+// operation with begin() and done() or failed():
+//
+//     long start = stats.begin();
+//     try {
+//         ...
+//         return stats.done(start, result);
+//     } catch (RuntimeException e) {
+//         throw stats.failed(start, e);
+//     }
+//
+// Only successful calls go into the histogram, so quick validation failures don't
+// pull the percentiles down; failures are counted per exception message. With
+// metrics disabled every method returns straight away.
+public class OperationStats implements OperationStatsMBean {
+    // Further distinct messages are counted under OTHER_REASON
+    static final int MAX_REASONS = 64;
+    static final String OTHER_REASON = "(other)";
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final Map<String, LongAdder> reasons = new ConcurrentHashMap<>();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+
+    public long begin() {
+        return HotelMetrics.ENABLED ? System.nanoTime() : 0;
+    }
+
+    public void done(long start) {
+        if (HotelMetrics.ENABLED) latency.record(System.nanoTime() - start);
+    }
+
+    public <T> T done(long start, T result) {
+        done(start);
+        return result;
+    }
+
+    public <E extends RuntimeException> E failed(long start, E error) {
+        if (!HotelMetrics.ENABLED) return error;
+        failures.increment();
+        reason(error).increment();
+        return error;
+    }
+
+    // An existing reason is a plain map read; a new one allocates its counter once
+    private LongAdder reason(RuntimeException error) {
+        String key = error instanceof IllegalArgumentException && error.getMessage() != null
+                ? error.getMessage() : error.getClass().getSimpleName();
+        LongAdder counter = reasons.get(key);
+        if (counter != null) return counter;
+        if (reasons.size() >= MAX_REASONS) key = OTHER_REASON;
+        return reasons.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    LatencyHistogram latency() { return latency; }
+
+    @Override public long getCalls() { return latency.count() + failures.sum(); }
+    @Override public long getFailures() { return failures.sum(); }
+    @Override public double getMeanMicros() { return latency.mean() / 1000; }
+    @Override public double getP50Micros() { return latency.percentile(0.50) / 1000.0; }
+    @Override public double getP90Micros() { return latency.percentile(0.90) / 1000.0; }
+    @Override public double getP99Micros() { return latency.percentile(0.99) / 1000.0; }
+    @Override public double getP999Micros() { return latency.percentile(0.999) / 1000.0; }
+    @Override public double getMaxMicros() { return latency.max() / 1000.0; }
+
+    @Override
+    public String[] getFailureReasons() {
+        return reasons.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .map(e -> e.getValue().sum() + "  " + e.getKey())
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        failures.reset();
+        reasons.clear();
+    }
+}
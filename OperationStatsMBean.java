@@ -0,0 +1,15 @@
+// JMX view of one instrumented operation; latencies are in microseconds
+public interface OperationStatsMBean {
+    // Successful and failed calls
+    long getCalls();
+    long getFailures();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP90Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+    // "count  reason" lines, most frequent first
+    String[] getFailureReasons();
+    void reset();
+}
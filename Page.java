@@ -0,0 +1,17 @@
+import java.util.List;
+
+// One page of a cursor-paged query. The cursor is opaque to callers: pass it back
+// to get the rows after this page; it is null when there are no more rows.
+public class Page<T> {
+    private final List<T> rows;
+    private final String nextCursor;
+
+    public Page(List<T> rows, String nextCursor) {
+        this.rows = rows;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getRows() { return rows; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return nextCursor != null; }
+}
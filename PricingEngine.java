@@ -0,0 +1,204 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Per-night room rates: the room's base price scaled by season (month), day of
+// week, a per-place factor and how full the room's (type, place) group is that
+// night. Factors are kept in basis points (10000 = x1.00) and rates are rounded
+// to the cent per night; all amounts are in cents.
+//
+// Each (type, place) group has a rate table over [startDay, startDay + horizon):
+// the calendar factors are precomputed once, and a night's occupancy count and
+// final rate are updated in place whenever a booking in the group adds or removes
+// that night, so quoting is a table read per night. The window rolls forward with
+// the rooms' occupancy calendars. Nights outside it are priced from the calendar
+// and place factors alone.
+public class PricingEngine implements ReservationRepository.Listener {
+    private static final int ONE = 10_000;
+    // January first: quiet winter, busy summer and holidays
+    private static final int[] SEASON_BP = {
+            9_000, 9_000, 9_500, 10_000, 10_000, 11_500, 12_500, 12_500, 10_500, 10_000, 9_000, 11_000 };
+    // Monday first: Friday and Saturday nights cost more
+    private static final int[] WEEKDAY_BP = { 10_000, 10_000, 10_000, 10_000, 11_000, 11_500, 10_000 };
+    // Group occupancy of at least OCCUPANCY_PERCENT[i] applies OCCUPANCY_BP[i + 1]
+    private static final int[] OCCUPANCY_PERCENT = { 50, 80, 95 };
+    private static final int[] OCCUPANCY_BP = { 10_000, 10_800, 12_000, 13_500 };
+
+    private final int horizon;
+    private final Map<Room, RateTable> tables = new IdentityHashMap<>();
+    private final Map<String, RateTable> byGroup = new HashMap<>();
+    private final Map<String, Integer> placeBp = new HashMap<>();
+
+    // One (type, place) group's rates; writes synchronize on the table, reads do not
+    private static final class RateTable {
+        final String place;
+        final List<Room> rooms = new ArrayList<>();
+        // Each room's position in rooms
+        final Map<Room, Integer> positions = new IdentityHashMap<>();
+        // Swapped whole when the window rolls, so a reader sees one window's rates
+        volatile Window window;
+
+        RateTable(String place) {
+            this.place = place;
+        }
+    }
+
+    // Rates for the nights [startDay, startDay + horizon). The nights from tailFrom
+    // on are counted one room at a time after a roll; until a room is counted, its
+    // bookings are left out of those nights, as the count will include them.
+    private static final class Window {
+        final int startDay;
+        final int[] calendarBp;
+        final int[] booked;
+        final AtomicIntegerArray rateBp;
+        final int tailFrom;
+        final boolean[] counted;
+
+        Window(int startDay, int horizon, int tailFrom, int rooms) {
+            this.startDay = startDay;
+            this.calendarBp = new int[horizon];
+            this.booked = new int[horizon];
+            this.rateBp = new AtomicIntegerArray(horizon);
+            this.tailFrom = tailFrom;
+            this.counted = new boolean[rooms];
+        }
+    }
+
+    // Rooms must all be added to the repository already. placeFactors maps a place
+    // to its price factor; places not in it keep 1.0.
+    public PricingEngine(RoomRepository rooms, Map<String, Double> placeFactors, int startDay, int horizon) {
+        this.horizon = horizon;
+        for (Map.Entry<String, Double> e : placeFactors.entrySet()) {
+            if (e.getValue() <= 0) throw new IllegalArgumentException("Place factor for " + e.getKey() + " must be positive!");
+            placeBp.put(e.getKey(), (int) Math.round(e.getValue() * ONE));
+        }
+        for (Room room : rooms.all()) {
+            RateTable table = byGroup.computeIfAbsent(group(room), key -> new RateTable(room.getPlace()));
+            table.positions.put(room, table.rooms.size());
+            table.rooms.add(room);
+            tables.put(room, table);
+        }
+        for (RateTable table : byGroup.values()) {
+            Window w = new Window(startDay, horizon, horizon, table.rooms.size());
+            LocalDate date = LocalDate.ofEpochDay(startDay);
+            for (int i = 0; i < horizon; i++, date = date.plusDays(1)) {
+                w.calendarBp[i] = scale(calendarBp(date), placeBp(table.place));
+                w.rateBp.set(i, scale(w.calendarBp[i], OCCUPANCY_BP[0]));
+            }
+            table.window = w;
+        }
+    }
+
+    // Total for the nights [checkInDay, checkOutDay); a same-day stay bills one night
+    public long quote(Room room, int checkInDay, int checkOutDay) {
+        RateTable table = tables.get(room);
+        Window w = table == null ? null : table.window;
+        long baseCents = room.getPricePerNightCents();
+        int end = Math.max(checkOutDay, checkInDay + 1);
+        long cents = 0;
+        for (int day = checkInDay; day < end; day++) cents += Money.scale(baseCents, rateBp(w, room, day));
+        return cents;
+    }
+
+    // Called by the reservation repository under the room's lock
+    @Override
+    public void nightsChanged(Room room, int fromDay, int toDay, int delta) {
+        RateTable table = tables.get(room);
+        if (table == null) return;
+        synchronized (table) {
+            Window w = table.window;
+            int from = Math.max(0, fromDay - w.startDay);
+            int to = Math.min(horizon, toDay - w.startDay);
+            if (!w.counted[table.positions.get(room)]) to = Math.min(to, w.tailFrom);
+            for (int i = from; i < to; i++) {
+                w.booked[i] += delta;
+                w.rateBp.set(i, scale(w.calendarBp[i], occupancyBp(w.booked[i], table.rooms.size())));
+            }
+        }
+    }
+
+    // Moves every group's window to start at newStartDay, after the rooms' calendars
+    // have been rolled to the same day. The shifted window is swapped in under the
+    // table lock alone; the nights that come into range are then counted from the
+    // calendars one room at a time, each under that room's lock, so a booking is
+    // held up by at most one room's count and nothing holds two room locks.
+    public void roll(int newStartDay) {
+        for (RateTable table : byGroup.values()) {
+            Window w;
+            synchronized (table) {
+                Window old = table.window;
+                if (newStartDay <= old.startDay) continue;
+                w = shift(table, old, newStartDay);
+                table.window = w;
+            }
+            for (Room room : table.rooms) {
+                ReservationIntervalIndex index = room.getReservationIndex();
+                // Bookings notify under the room lock and then take the table's
+                synchronized (index) {
+                    synchronized (table) {
+                        for (int i = w.tailFrom; i < horizon; i++) {
+                            if (!index.isOccupied(newStartDay + i)) continue;
+                            w.booked[i]++;
+                            w.rateBp.set(i, scale(w.calendarBp[i], occupancyBp(w.booked[i], table.rooms.size())));
+                        }
+                        w.counted[table.positions.get(room)] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    // The old window moved to newStartDay, with nothing yet booked in the new tail;
+    // under the table lock
+    private Window shift(RateTable table, Window old, int newStartDay) {
+        int kept = Math.max(0, old.startDay + horizon - newStartDay);
+        Window w = new Window(newStartDay, horizon, kept, table.rooms.size());
+        LocalDate date = LocalDate.ofEpochDay(newStartDay);
+        for (int i = 0; i < horizon; i++, date = date.plusDays(1)) {
+            if (i < kept) {
+                int oldIndex = newStartDay + i - old.startDay;
+                w.calendarBp[i] = old.calendarBp[oldIndex];
+                w.booked[i] = old.booked[oldIndex];
+            } else {
+                w.calendarBp[i] = scale(calendarBp(date), placeBp(table.place));
+            }
+            w.rateBp.set(i, scale(w.calendarBp[i], occupancyBp(w.booked[i], table.rooms.size())));
+        }
+        return w;
+    }
+
+    private int rateBp(Window w, Room room, int day) {
+        if (w != null) {
+            int i = day - w.startDay;
+            if (i >= 0 && i < horizon) return w.rateBp.get(i);
+        }
+        return scale(calendarBp(LocalDate.ofEpochDay(day)), placeBp(room.getPlace()));
+    }
+
+    private int placeBp(String place) {
+        return placeBp.getOrDefault(place, ONE);
+    }
+
+    private static int calendarBp(LocalDate date) {
+        return scale(SEASON_BP[date.getMonthValue() - 1], WEEKDAY_BP[date.getDayOfWeek().getValue() - 1]);
+    }
+
+    private static int occupancyBp(int booked, int rooms) {
+        int percent = booked * 100 / rooms;
+        int tier = 0;
+        while (tier < OCCUPANCY_PERCENT.length && percent >= OCCUPANCY_PERCENT[tier]) tier++;
+        return OCCUPANCY_BP[tier];
+    }
+
+    private static int scale(int bp, int factorBp) {
+        return (int) (((long) bp * factorBp + ONE / 2) / ONE);
+    }
+
+    private static String group(Room room) {
+        return room.getType() + '|' + room.getPlace();
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Count, mean and 1-5 histogram of the ratings of a group of complaints. Immutable:
+// the store swaps in a new instance on every change, so a reader always sees the
+// count, sum and histogram of the same moment without locking.
+public final class RatingStats {
+    public static final RatingStats EMPTY = new RatingStats(0, 0, new int[5]);
+
+    // Most complaints first, then the lowest mean rating
+    public static final Comparator<RatingStats> WORST_FIRST =
+            Comparator.comparingInt((RatingStats s) -> s.getCount()).reversed()
+                    .thenComparingLong(RatingStats::getMeanRatingHundredths);
+
+    private final int count;
+    private final long sum;
+    private final int[] histogram;
+
+    private RatingStats(int count, long sum, int[] histogram) {
+        this.count = count;
+        this.sum = sum;
+        this.histogram = histogram;
+    }
+
+    // From counts of ratings 1-5, e.g. when merging stats from several stores
+    static RatingStats of(int[] histogram) {
+        int count = 0;
+        long sum = 0;
+        for (int i = 0; i < 5; i++) {
+            count += histogram[i];
+            sum += (long) (i + 1) * histogram[i];
+        }
+        return new RatingStats(count, sum, Arrays.copyOf(histogram, 5));
+    }
+
+    public RatingStats plus(int rating) {
+        return change(rating, 1);
+    }
+
+    public RatingStats minus(int rating) {
+        return change(rating, -1);
+    }
+
+    private RatingStats change(int rating, int delta) {
+        int[] h = Arrays.copyOf(histogram, 5);
+        h[rating - 1] += delta;
+        return new RatingStats(count + delta, sum + (long) rating * delta, h);
+    }
+
+    public int getCount() { return count; }
+
+    public double getMeanRating() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // Mean rating x 100, rounded half up
+    public long getMeanRatingHundredths() {
+        return count == 0 ? 0 : (sum * 200 + count) / (2L * count);
+    }
+
+    // Complaints with the given rating (1-5)
+    public int getCount(int rating) {
+        return histogram[rating - 1];
+    }
+}
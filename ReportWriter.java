@@ -0,0 +1,158 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+// Row-at-a-time text output for reports going to the console, a file or an HTTP
+// response. Fields are formatted by hand into a fixed char buffer that is passed
+// to the sink whenever it fills, so rendering a row allocates nothing and memory
+// stays the same however many rows are written. Not thread-safe.
+public class ReportWriter {
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final Writer sink;
+    private final char[] buffer;
+    private int length;
+    private long rows;
+
+    public ReportWriter(Writer sink) {
+        this(sink, 8192);
+    }
+
+    public ReportWriter(Writer sink, int bufferSize) {
+        this.sink = sink;
+        this.buffer = new char[Math.max(64, bufferSize)];
+    }
+
+    public ReportWriter text(String s) {
+        int from = 0;
+        while (from < s.length()) {
+            if (length == buffer.length) drain();
+            int n = Math.min(s.length() - from, buffer.length - length);
+            s.getChars(from, from + n, buffer, length);
+            length += n;
+            from += n;
+        }
+        return this;
+    }
+
+    public ReportWriter text(char c) {
+        if (length == buffer.length) drain();
+        buffer[length++] = c;
+        return this;
+    }
+
+    public ReportWriter number(long n) {
+        if (n < 0) {
+            text('-');
+        } else {
+            n = -n; // Work with the negative value so Long.MIN_VALUE needs no special case
+        }
+        reserve(20);
+        int start = length;
+        do {
+            buffer[length++] = (char) ('0' - n % 10);
+            n /= 10;
+        } while (n != 0);
+        reverse(start, length - 1);
+        return this;
+    }
+
+    // Dollars and cents, e.g. 1234.50
+    public ReportWriter money(long cents) {
+        return hundredths(cents);
+    }
+
+    // Basis points as a percentage, e.g. 4520 as 45.20%
+    public ReportWriter percent(long basisPoints) {
+        return hundredths(basisPoints).text('%');
+    }
+
+    // A count of hundredths with two decimals, e.g. 225 as 2.25
+    public ReportWriter hundredths(long n) {
+        if (n < 0) {
+            text('-');
+            n = -n;
+        }
+        number(n / 100).text('.');
+        return twoDigits((int) (n % 100));
+    }
+
+    // YYYY-MM-DD, like LocalDate.toString for years 0-9999
+    public ReportWriter date(LocalDate date) {
+        return date(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    }
+
+    // The same for an epoch day, without creating a LocalDate (days-to-civil conversion
+    // of the proleptic Gregorian calendar)
+    public ReportWriter date(int epochDay) {
+        long z = epochDay + 719_468L;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return date((int) year, month, day);
+    }
+
+    public ReportWriter endRow() {
+        rows++;
+        return text(NEWLINE);
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    // Hands everything written so far to the sink and flushes it
+    public void flush() {
+        drain();
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ReportWriter date(int year, int month, int day) {
+        reserve(10);
+        if (year >= 0 && year < 1000) text('0');
+        if (year >= 0 && year < 100) text('0');
+        if (year >= 0 && year < 10) text('0');
+        number(year).text('-');
+        twoDigits(month).text('-');
+        return twoDigits(day);
+    }
+
+    private ReportWriter twoDigits(int n) {
+        reserve(2);
+        buffer[length++] = (char) ('0' + n / 10);
+        buffer[length++] = (char) ('0' + n % 10);
+        return this;
+    }
+
+    private void reserve(int chars) {
+        if (buffer.length - length < chars) drain();
+    }
+
+    private void reverse(int from, int to) {
+        for (; from < to; from++, to--) {
+            char c = buffer[from];
+            buffer[from] = buffer[to];
+            buffer[to] = c;
+        }
+    }
+
+    private void drain() {
+        if (length == 0) return;
+        try {
+            sink.write(buffer, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        length = 0;
+    }
+}
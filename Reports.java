@@ -0,0 +1,102 @@
+import java.util.Map;
+
+// Row layouts of the booking, room status, complaint, dashboard and analytics
+// reports, and a loop that streams a paged query through a ReportWriter one page
+// at a time, so a report of any size is rendered with one page of rows in memory.
+public class Reports {
+    private Reports() {}
+
+    // Fetches the page after cursor (null for the first page)
+    public interface PageSource<T> {
+        Page<T> fetch(String cursor, int limit);
+    }
+
+    public interface RowRenderer<T> {
+        void render(ReportWriter out, T row);
+    }
+
+    // Writes every row of the query, flushing after each page; returns the row count
+    public static <T> long writeAll(ReportWriter out, PageSource<T> source, RowRenderer<T> renderer, int pageSize) {
+        long before = out.rows();
+        String cursor = null;
+        do {
+            Page<T> page = source.fetch(cursor, pageSize);
+            for (T row : page.getRows()) renderer.render(out, row);
+            out.flush();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return out.rows() - before;
+    }
+
+    // ID: 1, Check-in: 2025-05-01, Check-out: 2025-05-04, Room: 201, Bill: $260.00
+    public static void booking(ReportWriter out, BookingRecord r) {
+        out.text("ID: ").number(r.getReservationId())
+                .text(", Check-in: ").date(r.getCheckInDay())
+                .text(", Check-out: ").date(r.getCheckOutDay())
+                .text(", Room: ").number(r.getRoomNumber())
+                .text(", Bill: $").money(r.getBillCents());
+        if (r.isCheckedOut()) out.text(" (checked out)");
+        out.endRow();
+    }
+
+    // ID: 1, Check-in: 2025-05-01, Check-out: 2025-05-04, Room: 201
+    public static void upcoming(ReportWriter out, Reservation r) {
+        out.text("ID: ").number(r.getReservationId())
+                .text(", Check-in: ").date(r.getCheckInDay())
+                .text(", Check-out: ").date(r.getCheckOutDay())
+                .text(", Room: ").number(r.getRoomNumber())
+                .endRow();
+    }
+
+    public static void roomStatus(ReportWriter out, RoomStatus s) {
+        Room r = s.getRoom();
+        out.text("Type: ").text(r.getType())
+                .text(", Room: ").number(r.getRoomNumber())
+                .text(", Status on ").date(s.getDate()).text(": ").text(s.isOccupied() ? "Occupied" : "Vacant")
+                .text(", Available From: ").date(s.getAvailableFrom())
+                .text(", Price: $").money(r.getPricePerNightCents())
+                .text("/night, Place: ").text(r.getPlace())
+                .endRow();
+    }
+
+    public static void complaint(ReportWriter out, Complaint c) {
+        out.text("ID: ").number(c.getComplaintId())
+                .text(", User: ").text(c.getUsername())
+                .text(", Contact: ").text(c.getContactNumber())
+                .text(", Room: ").number(c.getRoomNumber())
+                .text(", Type: ").text(c.getComplaintType())
+                .text(", Rating: ").number(c.getRating())
+                .endRow();
+    }
+
+    // Room 201: 4 complaints, mean rating 2.25, ratings 1:2 2:0 3:1 4:1 5:0
+    public static void complaintRoom(ReportWriter out, Map.Entry<Integer, RatingStats> room) {
+        out.text("Room ").number(room.getKey());
+        complaintStats(out, room.getValue());
+    }
+
+    // noise: 7 complaints, mean rating 1.86, ratings 1:3 2:2 3:2 4:0 5:0
+    public static void complaintType(ReportWriter out, Map.Entry<String, RatingStats> type) {
+        out.text(type.getKey());
+        complaintStats(out, type.getValue());
+    }
+
+    private static void complaintStats(ReportWriter out, RatingStats s) {
+        out.text(": ").number(s.getCount()).text(s.getCount() == 1 ? " complaint" : " complaints")
+                .text(", mean rating ").hundredths(s.getMeanRatingHundredths())
+                .text(", ratings");
+        for (int rating = 1; rating <= 5; rating++) out.text(' ').number(rating).text(':').number(s.getCount(rating));
+        out.endRow();
+    }
+
+    // 2025-05-01, Double: Occupancy 45.20% (113/250 nights), ADR $92.10, RevPAR $41.63, Revenue $10407.30
+    public static void analytics(ReportWriter out, AnalyticsRow a) {
+        out.date(a.getPeriodStart()).text(", ").text(a.getGroup())
+                .text(": Occupancy ").percent(a.getOccupancyBasisPoints())
+                .text(" (").number(a.getSoldNights()).text('/').number(a.getRoomNights())
+                .text(" nights), ADR $").money(a.getAdrCents())
+                .text(", RevPAR $").money(a.getRevParCents())
+                .text(", Revenue $").money(a.getRevenueCents())
+                .endRow();
+    }
+}
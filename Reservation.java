@@ -1,40 +1,60 @@
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 
 public class Reservation {
     private int reservationId;
-    private String checkInDate;
-    public void setCheckInDate(String checkInDate) {
-        this.checkInDate = checkInDate;
-    }
-    public void setCheckOutDate(String checkOutDate) {
-        this.checkOutDate = checkOutDate;
+    // Dates are kept as epoch days so comparisons never need to parse
+    private int checkInDay;
+    private int checkOutDay;
+    // Only ReservationRepository.changeDates may move a stay, under the room's lock,
+    // so the room index, calendar and pricing counts move with it
+    void setDates(int checkInDay, int checkOutDay) {
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
     }
 
-    private String checkOutDate;
     private int roomNumber;
-    private double billAmount;
+    private long billCents;
     private String userId;
 
-    public Reservation(int reservationId, String checkInDate, String checkOutDate, int roomNumber, double billAmount, String userId) {
+    public Reservation(int reservationId, String checkInDate, String checkOutDate, int roomNumber, long billCents, String userId) {
+        this(reservationId, LocalDate.parse(checkInDate), LocalDate.parse(checkOutDate), roomNumber, billCents, userId);
+    }
+
+    public Reservation(int reservationId, LocalDate checkInDate, LocalDate checkOutDate, int roomNumber, long billCents, String userId) {
+        this(reservationId, toEpochDay(checkInDate), toEpochDay(checkOutDate), roomNumber, billCents, userId);
+    }
+
+    public Reservation(int reservationId, int checkInDay, int checkOutDay, int roomNumber, long billCents, String userId) {
         this.reservationId = reservationId;
-        this.checkInDate = checkInDate;
-        this.checkOutDate = checkOutDate;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
         this.roomNumber = roomNumber;
-        this.billAmount = billAmount;
+        this.billCents = billCents;
         this.userId = userId;
     }
 
-    public void calculateBill(double pricePerNight) {
-        long nights = ChronoUnit.DAYS.between(LocalDate.parse(checkInDate), LocalDate.parse(checkOutDate));
-        if (nights <= 0) nights = 1;
-        this.billAmount = nights * pricePerNight;
+    public static int toEpochDay(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    public void calculateBill(long pricePerNightCents) {
+        this.billCents = getNights() * pricePerNightCents;
+    }
+
+    public int getNights() {
+        int nights = checkOutDay - checkInDay;
+        return nights <= 0 ? 1 : nights;
     }
 
     public int getReservationId() { return reservationId; }
-    public String getCheckInDate() { return checkInDate; }
-    public String getCheckOutDate() { return checkOutDate; }
+    public int getCheckInDay() { return checkInDay; }
+    public int getCheckOutDay() { return checkOutDay; }
+    public LocalDate getCheckIn() { return LocalDate.ofEpochDay(checkInDay); }
+    public LocalDate getCheckOut() { return LocalDate.ofEpochDay(checkOutDay); }
+    // String views are only built for display
+    public String getCheckInDate() { return getCheckIn().toString(); }
+    public String getCheckOutDate() { return getCheckOut().toString(); }
     public int getRoomNumber() { return roomNumber; }
-    public double getBillAmount() { return billAmount; }
+    public long getBillCents() { return billCents; }
     public String getUserId() { return userId; }
-}
\ No newline at end of file
+}
@@ -0,0 +1,159 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+// Off-heap columnar store for checked-out reservations. Each column is its own
+// memory-mapped file of fixed-width values, so history scans read primitives
+// straight from the page cache instead of keeping Reservation objects on heap.
+// Only checked-out stays move here: a past stay that was never checked out stays
+// a live Reservation on the heap.
+// Rows are append-only; the row count in rows.meta is the commit point. append
+// only writes the row; sync makes every row appended so far durable, so callers
+// can force outside their own locks and one force covers a burst of checkouts.
+// A reservation is archived at most once, so a checkout whose journal record was
+// lost in a crash can be recognised and skipped on replay.
+//
+// Readers take no lock. size and each column's buffer are volatile, and append
+// publishes a grown buffer before the size that needs it, so a reader that reads
+// size first never indexes past the buffer it then reads.
+public class ReservationArchive implements Closeable {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Path directory;
+    private final MappedByteBuffer meta;
+    private final FileChannel metaChannel;
+    private final Column ids;
+    private final Column rooms;
+    private final Column checkIns;
+    private final Column checkOuts;
+    private final Column billCents;
+    private final Column users;
+    private volatile int size;
+    private int capacity;
+    // Rows covered by the row count on disk
+    private int durableSize;
+    private final BitSet archivedIds = new BitSet();
+
+    // One mapped file holding a single fixed-width column
+    private static class Column {
+        final FileChannel channel;
+        final int width;
+        volatile MappedByteBuffer buffer;
+
+        Column(Path file, int width, int capacity) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.width = width;
+            map(capacity);
+        }
+
+        void map(int capacity) throws IOException {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * width);
+        }
+    }
+
+    public ReservationArchive(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            metaChannel = FileChannel.open(directory.resolve("rows.meta"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            meta = metaChannel.map(FileChannel.MapMode.READ_WRITE, 0, Integer.BYTES);
+            size = meta.getInt(0);
+            capacity = INITIAL_CAPACITY;
+            while (capacity < size) capacity *= 2;
+            ids = new Column(directory.resolve("id.col"), Integer.BYTES, capacity);
+            rooms = new Column(directory.resolve("room.col"), Integer.BYTES, capacity);
+            checkIns = new Column(directory.resolve("checkin.col"), Integer.BYTES, capacity);
+            checkOuts = new Column(directory.resolve("checkout.col"), Integer.BYTES, capacity);
+            billCents = new Column(directory.resolve("bill.col"), Long.BYTES, capacity);
+            users = new Column(directory.resolve("user.col"), Integer.BYTES, capacity);
+            durableSize = size;
+            for (int row = 0; row < size; row++) archivedIds.set(reservationId(row));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open reservation archive in " + directory, e);
+        }
+    }
+
+    // User IDs are "U" followed by a sequence number, which doubles as the ordinal
+    public static int userOrdinal(String userId) {
+        return Integer.parseInt(userId.substring(1));
+    }
+
+    // Returns false, writing nothing, if the reservation is already archived
+    public synchronized boolean append(Reservation r) {
+        if (archivedIds.get(r.getReservationId())) return false;
+        try {
+            if (size == capacity) grow();
+            int row = size;
+            ids.buffer.putInt(row * Integer.BYTES, r.getReservationId());
+            rooms.buffer.putInt(row * Integer.BYTES, r.getRoomNumber());
+            checkIns.buffer.putInt(row * Integer.BYTES, r.getCheckInDay());
+            checkOuts.buffer.putInt(row * Integer.BYTES, r.getCheckOutDay());
+            billCents.buffer.putLong(row * Long.BYTES, r.getBillCents());
+            users.buffer.putInt(row * Integer.BYTES, userOrdinal(r.getUserId()));
+            size = row + 1;
+            archivedIds.set(r.getReservationId());
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to reservation archive in " + directory, e);
+        }
+    }
+
+    // Forces the rows appended so far, then the row count that commits them
+    public synchronized void sync() {
+        if (durableSize == size) return;
+        for (Column c : columns()) c.buffer.force();
+        meta.putInt(0, size);
+        meta.force();
+        durableSize = size;
+    }
+
+    public synchronized boolean contains(int reservationId) {
+        return archivedIds.get(reservationId);
+    }
+
+    private void grow() throws IOException {
+        capacity *= 2;
+        for (Column c : columns()) c.map(capacity);
+    }
+
+    private Column[] columns() {
+        return new Column[] { ids, rooms, checkIns, checkOuts, billCents, users };
+    }
+
+    public int size() { return size; }
+    public int reservationId(int row) { return ids.buffer.getInt(row * Integer.BYTES); }
+    public int roomNumber(int row) { return rooms.buffer.getInt(row * Integer.BYTES); }
+    public int checkInDay(int row) { return checkIns.buffer.getInt(row * Integer.BYTES); }
+    public int checkOutDay(int row) { return checkOuts.buffer.getInt(row * Integer.BYTES); }
+    public long billCents(int row) { return billCents.buffer.getLong(row * Long.BYTES); }
+    public int userOrdinal(int row) { return users.buffer.getInt(row * Integer.BYTES); }
+
+    public int maxUserOrdinal() {
+        int max = 0;
+        for (int row = 0; row < size; row++) max = Math.max(max, userOrdinal(row));
+        return max;
+    }
+
+    public int maxReservationId() {
+        int max = 0;
+        for (int row = 0; row < size; row++) max = Math.max(max, reservationId(row));
+        return max;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            for (Column c : columns()) c.channel.close();
+            metaChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Streaming bulk import of reservations from a channel-manager feed. Each line is
+// either CSV  userId,checkIn,checkOut,roomType[,roomNumber]  (an optional header
+// line starting with "userId" is skipped) or a JSON object with the same fields.
+//
+// Lines are read in batches that are parsed and validated on a worker pool, with a
+// bounded number of batches in flight so memory stays flat regardless of file size.
+// Batches are committed in file order on the calling thread: every row is booked
+// against the live room indexes, so conflicts with existing or earlier rows are
+// rejected, and each batch waits for a single journal fsync.
+public class ReservationImporter {
+    public static final int BATCH_SIZE = 4096;
+
+    private final BookingEngine engine;
+    private final UserRepository users;
+    private final int threads;
+
+    private static final class Row {
+        final long lineNumber;
+        final String line;
+        String userId;
+        String roomType;
+        int roomNumber = -1;
+        int checkInDay;
+        int checkOutDay;
+        String error;
+
+        Row(long lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    public ReservationImporter(BookingEngine engine, UserRepository users, int threads) {
+        this.engine = engine;
+        this.users = users;
+        this.threads = threads;
+    }
+
+    // rejects, if not null, receives every rejected line as  lineNumber<TAB>reason<TAB>line
+    public ImportReport importFile(Path file, Writer rejects) throws IOException {
+        ImportReport report = new ImportReport();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<List<Row>>> inFlight = new ArrayDeque<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            List<Row> batch = new ArrayList<>(BATCH_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && line.startsWith("userId"))) continue;
+                batch.add(new Row(lineNumber, line));
+                if (batch.size() == BATCH_SIZE) {
+                    List<Row> rows = batch;
+                    inFlight.add(pool.submit(() -> parse(rows)));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    if (inFlight.size() >= 2 * threads) commit(await(inFlight.poll()), report, rejects);
+                }
+            }
+            if (!batch.isEmpty()) {
+                List<Row> rows = batch;
+                inFlight.add(pool.submit(() -> parse(rows)));
+            }
+            while (!inFlight.isEmpty()) commit(await(inFlight.poll()), report, rejects);
+        } finally {
+            pool.shutdownNow();
+        }
+        return report;
+    }
+
+    private static List<Row> await(Future<List<Row>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted!", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Import failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // Runs on the worker pool: field parsing and the same checks as an interactive booking
+    private List<Row> parse(List<Row> rows) {
+        for (Row row : rows) {
+            try {
+                String checkIn, checkOut, roomNumber;
+                String line = row.line.trim();
+                if (line.startsWith("{")) {
+                    Map<String, String> fields = Json.parseObject(line);
+                    row.userId = fields.get("userId");
+                    checkIn = fields.get("checkIn");
+                    checkOut = fields.get("checkOut");
+                    row.roomType = fields.get("roomType");
+                    roomNumber = fields.get("roomNumber");
+                } else {
+                    String[] fields = line.split(",", -1);
+                    if (fields.length < 4 || fields.length > 5)
+                        throw new IllegalArgumentException("Expected userId,checkIn,checkOut,roomType[,roomNumber]!");
+                    row.userId = fields[0].trim();
+                    checkIn = fields[1].trim();
+                    checkOut = fields[2].trim();
+                    row.roomType = fields[3].trim();
+                    roomNumber = fields.length == 5 && !fields[4].isBlank() ? fields[4].trim() : null;
+                }
+                if (row.userId == null || checkIn == null || checkOut == null || row.roomType == null)
+                    throw new IllegalArgumentException("Missing userId, checkIn, checkOut or roomType!");
+                LocalDate in = HotelService.parseCheckIn(checkIn);
+                LocalDate out = HotelService.parseCheckOut(checkOut, in);
+                row.checkInDay = Reservation.toEpochDay(in);
+                row.checkOutDay = Reservation.toEpochDay(out);
+                HotelService.validateRoomType(row.roomType);
+                if (roomNumber != null) row.roomNumber = parseRoomNumber(roomNumber);
+                if (!users.exists(row.userId)) throw new IllegalArgumentException("User ID does not exist!");
+            } catch (IllegalArgumentException e) {
+                row.error = e.getMessage();
+            }
+        }
+        return rows;
+    }
+
+    private static int parseRoomNumber(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Room number must be a valid number!");
+        }
+    }
+
+    // Runs on the calling thread, in file order. Rows booked before a failed write
+    // to rejects are still synced and counted.
+    private void commit(List<Row> rows, ImportReport report, Writer rejects) throws IOException {
+        int booked = 0;
+        try {
+            for (Row row : rows) {
+                if (row.error == null) {
+                    Reservation r = engine.reserveUnsynced(row.userId, row.roomType, row.roomNumber,
+                            row.checkInDay, row.checkOutDay);
+                    if (r != null) {
+                        booked++;
+                        continue;
+                    }
+                    row.error = row.roomNumber == -1
+                            ? "No vacant " + row.roomType + " rooms available for these dates!"
+                            : "Room " + row.roomNumber + " is not a " + row.roomType + " room free for these dates!";
+                }
+                report.reject(row.lineNumber, row.error);
+                if (rejects != null) rejects.write(row.lineNumber + "\t" + row.error + "\t" + row.line + "\n");
+            }
+        } finally {
+            engine.syncJournal();
+            report.accept(booked);
+        }
+    }
+}
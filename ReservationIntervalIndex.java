@@ -0,0 +1,109 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+// Sorted index of a room's reservations keyed by check-in epoch day.
+// Overlap checks only visit reservations whose check-in falls inside
+// [checkIn - longestStay, checkOut], so they stay O(log n) for normal stays.
+// An OccupancyCalendar mirrors the same bookings as day bitmaps, so status and
+// availability queries inside its horizon are bit tests instead of tree walks.
+// The index's monitor is the room's booking lock: hold it across a check and
+// the insert that depends on it.
+public class ReservationIntervalIndex {
+    private final TreeMap<Integer, List<Reservation>> byCheckIn = new TreeMap<>();
+    private final OccupancyCalendar calendar;
+    private int longestStay = 0;
+    private int size = 0;
+
+    public ReservationIntervalIndex(int calendarStartDay) {
+        this.calendar = new OccupancyCalendar(calendarStartDay, OccupancyCalendar.DEFAULT_HORIZON_DAYS);
+    }
+
+    public synchronized void add(Reservation r) {
+        byCheckIn.computeIfAbsent(r.getCheckInDay(), k -> new ArrayList<>(1)).add(r);
+        longestStay = Math.max(longestStay, r.getCheckOutDay() - r.getCheckInDay());
+        size++;
+        calendar.mark(r.getCheckInDay(), r.getCheckOutDay());
+    }
+
+    // Must be called before the reservation's dates are changed
+    public synchronized boolean remove(Reservation r) {
+        List<Reservation> bucket = byCheckIn.get(r.getCheckInDay());
+        if (bucket == null || !bucket.remove(r)) return false;
+        if (bucket.isEmpty()) byCheckIn.remove(r.getCheckInDay());
+        size--;
+        calendar.clear(r.getCheckInDay(), r.getCheckOutDay());
+        // Re-mark any neighbour whose days were shared (only possible with legacy data)
+        for (Reservation other : overlapping(r.getCheckInDay(), r.getCheckOutDay(), -1)) {
+            calendar.mark(other.getCheckInDay(), other.getCheckOutDay());
+        }
+        return true;
+    }
+
+    // Rolls the calendar forward to start at day, then marks the stays that reach
+    // into the days newly covered at its end
+    public synchronized void rollCalendar(int day) {
+        int oldEnd = calendar.getEndDay();
+        if (!calendar.rebase(day)) return;
+        int from = Math.max(oldEnd, day);
+        for (Reservation r : overlapping(from, calendar.getEndDay() - 1, -1)) {
+            calendar.mark(r.getCheckInDay(), r.getCheckOutDay());
+        }
+    }
+
+    // True if any reservation other than excludeId overlaps [checkIn, checkOut] (both inclusive)
+    public synchronized boolean overlaps(int checkIn, int checkOut, int excludeId) {
+        if (excludeId == -1 && calendar.covers(checkIn, checkOut)) return calendar.isBlocked(checkIn, checkOut);
+        for (List<Reservation> bucket : byCheckIn.subMap(checkIn - longestStay, true, checkOut, true).values()) {
+            for (Reservation r : bucket) {
+                if (r.getReservationId() != excludeId && r.getCheckOutDay() >= checkIn) return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized List<Reservation> overlapping(int checkIn, int checkOut, int excludeId) {
+        List<Reservation> result = new ArrayList<>();
+        for (List<Reservation> bucket : byCheckIn.subMap(checkIn - longestStay, true, checkOut, true).values()) {
+            for (Reservation r : bucket) {
+                if (r.getReservationId() != excludeId && r.getCheckOutDay() >= checkIn) result.add(r);
+            }
+        }
+        return result;
+    }
+
+    // True if some stay has the night of this day booked ([checkIn, checkOut))
+    public synchronized boolean isOccupied(int day) {
+        if (calendar.covers(day)) return calendar.isOccupied(day);
+        for (List<Reservation> bucket : byCheckIn.subMap(day - longestStay, true, day, true).values()) {
+            for (Reservation r : bucket) {
+                if (day < r.getCheckOutDay()) return true;
+            }
+        }
+        return false;
+    }
+
+    // First day >= fromDay on which a new stay could start, i.e. not inside any [checkIn, checkOut]
+    public synchronized int nextFreeDay(int fromDay) {
+        int day = fromDay;
+        while (true) {
+            if (calendar.covers(day)) {
+                int free = calendar.nextFreeDay(day);
+                if (free != -1) return free;
+                day = calendar.getEndDay();
+            }
+            int blockedUntil = -1;
+            for (Reservation r : overlapping(day, day, -1)) blockedUntil = Math.max(blockedUntil, r.getCheckOutDay());
+            if (blockedUntil == -1) return day;
+            day = blockedUntil + 1;
+        }
+    }
+
+    public synchronized List<Reservation> toList() {
+        List<Reservation> result = new ArrayList<>(size);
+        for (List<Reservation> bucket : byCheckIn.values()) result.addAll(bucket);
+        return result;
+    }
+
+    public synchronized int size() { return size; }
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// The single authoritative store of live reservations, indexed by reservationId.
+// The per-user index and each room's interval index are views derived from it:
+// every add, remove and date change updates all of them while holding the room's
+// booking lock (its ReservationIntervalIndex monitor), so nothing else mutates a
+// room's bookings and a holder of that lock never sees the views disagree.
+// Safe for concurrent use; IDs come from an IdGenerator and only grow, so
+// iteration follows booking order.
+public class ReservationRepository {
+    // Told about every night a room gains or loses, under that room's lock
+    public interface Listener {
+        // delta is +1 for the nights [fromDay, toDay) being booked, -1 for them being freed
+        void nightsChanged(Room room, int fromDay, int toDay, int delta);
+    }
+
+    private final RoomRepository rooms;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentNavigableMap<Integer, Reservation> byId = new ConcurrentSkipListMap<>();
+    // ConcurrentHashMap so creating and dropping a user's map is atomic with the update
+    private final ConcurrentMap<String, ConcurrentNavigableMap<Integer, Reservation>> byUser = new ConcurrentHashMap<>();
+
+    public ReservationRepository(RoomRepository rooms) {
+        this.rooms = rooms;
+    }
+
+    // Listeners only hear about changes made after they are added
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void add(Reservation r) {
+        Room room = rooms.findByNumber(r.getRoomNumber());
+        ReservationIntervalIndex roomIndex = roomIndex(room);
+        synchronized (lockFor(roomIndex)) {
+            if (byId.putIfAbsent(r.getReservationId(), r) != null)
+                throw new IllegalStateException("Duplicate reservation ID: " + r.getReservationId());
+            byUser.compute(r.getUserId(), (userId, userReservations) -> {
+                if (userReservations == null) userReservations = new ConcurrentSkipListMap<>();
+                userReservations.put(r.getReservationId(), r);
+                return userReservations;
+            });
+            if (roomIndex != null) roomIndex.add(r);
+            notify(room, r, 1);
+        }
+    }
+
+    public boolean remove(Reservation r) {
+        Room room = rooms.findByNumber(r.getRoomNumber());
+        ReservationIntervalIndex roomIndex = roomIndex(room);
+        synchronized (lockFor(roomIndex)) {
+            if (byId.remove(r.getReservationId()) == null) return false;
+            byUser.computeIfPresent(r.getUserId(), (userId, userReservations) -> {
+                userReservations.remove(r.getReservationId());
+                return userReservations.isEmpty() ? null : userReservations;
+            });
+            if (roomIndex != null) roomIndex.remove(r);
+            notify(room, r, -1);
+            return true;
+        }
+    }
+
+    // Moves a reservation to new dates; the caller checks for conflicts under the same lock.
+    // Returns false if the reservation was removed (cancelled or checked out) first.
+    public boolean changeDates(Reservation r, int checkInDay, int checkOutDay) {
+        Room room = rooms.findByNumber(r.getRoomNumber());
+        ReservationIntervalIndex roomIndex = roomIndex(room);
+        synchronized (lockFor(roomIndex)) {
+            if (byId.get(r.getReservationId()) != r) return false;
+            // The room index is keyed by check-in, so remove before the dates change
+            if (roomIndex != null) roomIndex.remove(r);
+            notify(room, r, -1);
+            r.setDates(checkInDay, checkOutDay);
+            if (roomIndex != null) roomIndex.add(r);
+            notify(room, r, 1);
+            return true;
+        }
+    }
+
+    public List<Reservation> removeByUser(String userId) {
+        List<Reservation> removed = new ArrayList<>(findByUser(userId));
+        removed.removeIf(r -> !remove(r));
+        return removed;
+    }
+
+    public Reservation findById(int reservationId) { return byId.get(reservationId); }
+
+    public Collection<Reservation> findByUser(String userId) {
+        ConcurrentNavigableMap<Integer, Reservation> userReservations = byUser.get(userId);
+        return userReservations == null ? Collections.emptyList() : userReservations.values();
+    }
+
+    // A user's reservations with IDs above afterId, in ID order; for resuming a paged scan
+    public Collection<Reservation> findByUserAfter(String userId, int afterId) {
+        ConcurrentNavigableMap<Integer, Reservation> userReservations = byUser.get(userId);
+        return userReservations == null ? Collections.emptyList() : userReservations.tailMap(afterId, false).values();
+    }
+
+    public Collection<Reservation> all() { return byId.values(); }
+    public Collection<Reservation> allAfter(int afterId) { return byId.tailMap(afterId, false).values(); }
+    public int size() { return byId.size(); }
+
+    private static ReservationIntervalIndex roomIndex(Room room) {
+        return room == null ? null : room.getReservationIndex();
+    }
+
+    private void notify(Room room, Reservation r, int delta) {
+        if (room == null) return;
+        for (Listener listener : listeners) listener.nightsChanged(room, r.getCheckInDay(), r.getCheckOutDay(), delta);
+    }
+
+    // Reservations for rooms that no longer exist only have the global and user views
+    private Object lockFor(ReservationIntervalIndex roomIndex) {
+        return roomIndex != null ? roomIndex : this;
+    }
+}
@@ -1,34 +1,39 @@
-import java.util.ArrayList;
+import java.time.LocalDate;
 import java.util.List;
 
 public class Room {
     private String type;
-    private boolean isVacant;
+    private volatile boolean isVacant;
     private double pricePerNight;
+    private long pricePerNightCents;
     private String place;
     private int roomNumber;
 
-    private List<Reservation> reservations; // ✅ NEW
+    private ReservationIntervalIndex reservations; // Sorted by check-in, with a day calendar from today or dateAvailable
 
     public Room(String type, boolean isVacant, String dateAvailable, double pricePerNight, String place, int roomNumber) {
         this.type = type;
         this.isVacant = isVacant;
         this.pricePerNight = pricePerNight;
+        this.pricePerNightCents = Money.ofDollars(pricePerNight);
         this.place = place;
         this.roomNumber = roomNumber;
-        this.reservations = new ArrayList<>(); // ✅ Initialize list
+        // The calendar starts today, or later for a room that opens in the future,
+        // and is rolled forward daily by HotelService
+        this.reservations = new ReservationIntervalIndex(Math.max(Reservation.toEpochDay(LocalDate.parse(dateAvailable)),
+                Reservation.toEpochDay(LocalDate.now())));
     }
 
     public String getType() { return type; }
     public boolean isVacant() { return isVacant; }
     public void setVacant(boolean vacant) { this.isVacant = vacant; }
     public double getPricePerNight() { return pricePerNight; }
+    public long getPricePerNightCents() { return pricePerNightCents; }
     public String getPlace() { return place; }
     public int getRoomNumber() { return roomNumber; }
     public List<Reservation> getReservations() {
-        return reservations;
-    }
-    public void addReservation(Reservation reservation) {
-        this.reservations.add(reservation);
+        return reservations.toList();
     }
+    // Maintained by ReservationRepository; read-only for everyone else
+    public ReservationIntervalIndex getReservationIndex() { return reservations; }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Rooms indexed by room number, iterated in the order they were added.
+// Secondary indexes by type and by (type, place) keep each group sorted by
+// price then room number, so searches walk candidates cheapest first.
+// Rooms are added during startup only; lookups are safe from any thread afterwards.
+public class RoomRepository {
+    private static final String ANY = "*";
+    private static final Comparator<Room> BY_PRICE =
+            Comparator.comparingDouble(Room::getPricePerNight).thenComparingInt(Room::getRoomNumber);
+
+    private final Map<Integer, Room> byNumber = new LinkedHashMap<>();
+    private final Map<String, List<Room>> byType = new HashMap<>();
+    // Keyed by type + '|' + place, with "*" standing for any type or any place
+    private final Map<String, List<Room>> byPrice = new HashMap<>();
+
+    public void add(Room room) {
+        byNumber.put(room.getRoomNumber(), room);
+        byType.computeIfAbsent(room.getType(), k -> new ArrayList<>()).add(room);
+        insertByPrice(key(room.getType(), room.getPlace()), room);
+        insertByPrice(key(room.getType(), ANY), room);
+        insertByPrice(key(ANY, room.getPlace()), room);
+        insertByPrice(key(ANY, ANY), room);
+    }
+
+    private void insertByPrice(String key, Room room) {
+        List<Room> rooms = byPrice.computeIfAbsent(key, k -> new ArrayList<>());
+        int pos = Collections.binarySearch(rooms, room, BY_PRICE);
+        rooms.add(pos < 0 ? -pos - 1 : pos, room);
+    }
+
+    private static String key(String type, String place) {
+        return type + '|' + place;
+    }
+
+    public Room findByNumber(int roomNumber) { return byNumber.get(roomNumber); }
+    public Collection<Room> all() { return byNumber.values(); }
+    public boolean isEmpty() { return byNumber.isEmpty(); }
+    public int size() { return byNumber.size(); }
+
+    // Rooms of a type in the order they were added
+    public List<Room> findByType(String type) {
+        List<Room> rooms = byType.get(type);
+        return rooms == null ? Collections.emptyList() : Collections.unmodifiableList(rooms);
+    }
+
+    // Rooms matching type and place (null for any), cheapest first
+    public List<Room> findByPrice(String type, String place) {
+        List<Room> rooms = byPrice.get(key(type == null ? ANY : type, place == null ? ANY : place));
+        return rooms == null ? Collections.emptyList() : Collections.unmodifiableList(rooms);
+    }
+}
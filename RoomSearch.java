@@ -0,0 +1,52 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Availability search over the room indexes. Candidates come from the
+// (type, place) price index, so the walk starts at the cheapest room in range
+// and stops as soon as it has enough free rooms or passes the price ceiling;
+// each availability check is a bit test on the room's occupancy calendar.
+// Results are a snapshot: booking re-checks each room under its own lock.
+public class RoomSearch {
+    private final RoomRepository rooms;
+
+    public RoomSearch(RoomRepository rooms) {
+        this.rooms = rooms;
+    }
+
+    // Up to limit rooms free for the whole stay, cheapest first. type and place may
+    // be null for any; the price bounds are inclusive.
+    public List<Room> search(String type, String place, double minPrice, double maxPrice,
+                             int checkInDay, int checkOutDay, int limit) {
+        if (limit <= 0) return Collections.emptyList();
+        List<Room> candidates = candidates(type, place, minPrice, maxPrice);
+        List<Room> result = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (Room room : candidates) {
+            if (room.getReservationIndex().overlaps(checkInDay, checkOutDay, -1)) continue;
+            result.add(room);
+            if (result.size() == limit) break;
+        }
+        return result;
+    }
+
+    // Every room matching the filters regardless of availability, cheapest first
+    public List<Room> candidates(String type, String place, double minPrice, double maxPrice) {
+        List<Room> byPrice = rooms.findByPrice(type, place);
+        int from = firstIndex(byPrice, minPrice, false);
+        int to = firstIndex(byPrice, maxPrice, true);
+        return from < to ? byPrice.subList(from, to) : Collections.emptyList();
+    }
+
+    // Binary search for the first room priced at or above bound, or strictly above it
+    // when skipEqual is set
+    private static int firstIndex(List<Room> byPrice, double bound, boolean skipEqual) {
+        int lo = 0, hi = byPrice.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double price = byPrice.get(mid).getPricePerNight();
+            if (price < bound || (skipEqual && price == bound)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,21 @@
+import java.time.LocalDate;
+
+// A room's occupancy on one date and the first date it is free again
+public class RoomStatus {
+    private final Room room;
+    private final LocalDate date;
+    private final boolean occupied;
+    private final LocalDate availableFrom;
+
+    public RoomStatus(Room room, LocalDate date, boolean occupied, LocalDate availableFrom) {
+        this.room = room;
+        this.date = date;
+        this.occupied = occupied;
+        this.availableFrom = availableFrom;
+    }
+
+    public Room getRoom() { return room; }
+    public LocalDate getDate() { return date; }
+    public boolean isOccupied() { return occupied; }
+    public LocalDate getAvailableFrom() { return availableFrom; }
+}
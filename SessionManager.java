@@ -0,0 +1,129 @@
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Opaque session tokens mapped to user IDs, so a client pays for the password
+// check once at login and later calls resolve their principal with a hash lookup.
+// A session ends after an idle timeout, after an absolute lifetime regardless of
+// use, or when it is the least recently used one in a full cache.
+//
+// The cache is split into segments chosen by token hash, each an access-ordered
+// LinkedHashMap under its own lock, so lookups from different clients rarely
+// contend and eviction within a segment is O(1).
+public class SessionManager {
+    public static final long DEFAULT_IDLE_MILLIS = 30 * 60_000L;
+    public static final long DEFAULT_ABSOLUTE_MILLIS = 12 * 60 * 60_000L;
+    public static final int DEFAULT_MAX_SESSIONS = 100_000;
+    private static final int SEGMENTS = 16;
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long idleMillis;
+    private final long absoluteMillis;
+
+    private static final class Session {
+        final String userId;
+        final long createdAt;
+        long lastAccess;
+
+        Session(String userId, long now) {
+            this.userId = userId;
+            this.createdAt = now;
+            this.lastAccess = now;
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Session> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    public SessionManager() {
+        this(DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_MILLIS, DEFAULT_ABSOLUTE_MILLIS);
+    }
+
+    public SessionManager(int maxSessions, long idleMillis, long absoluteMillis) {
+        int perSegment = Math.max(1, maxSessions / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment(perSegment);
+        this.idleMillis = idleMillis;
+        this.absoluteMillis = absoluteMillis;
+    }
+
+    // Starts a session for an already authenticated user and returns its token
+    public String create(String userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Segment segment = segmentFor(token);
+        synchronized (segment) {
+            segment.put(token, new Session(userId, System.currentTimeMillis()));
+        }
+        return token;
+    }
+
+    // The user ID behind a live token, or null if it is unknown or has expired
+    public String resolve(String token) {
+        Segment segment = segmentFor(token);
+        long now = System.currentTimeMillis();
+        synchronized (segment) {
+            Session s = segment.get(token);
+            if (s == null) return null;
+            if (isExpired(s, now)) {
+                segment.remove(token);
+                return null;
+            }
+            s.lastAccess = now;
+            return s.userId;
+        }
+    }
+
+    public void invalidate(String token) {
+        Segment segment = segmentFor(token);
+        synchronized (segment) {
+            segment.remove(token);
+        }
+    }
+
+    // Ends every session of a user, e.g. when the profile is deleted
+    public void invalidateUser(String userId) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.values().removeIf(s -> s.userId.equals(userId));
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getIdleMillis() { return idleMillis; }
+
+    private boolean isExpired(Session s, long now) {
+        return now - s.lastAccess >= idleMillis || now - s.createdAt >= absoluteMillis;
+    }
+
+    private Segment segmentFor(String token) {
+        int h = token.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+}
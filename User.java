@@ -1,13 +1,13 @@
 public class User {
     private String userId;
-    private String password;
+    private String passwordHash;
     private boolean isAdmin;
     private String name;
     private String email;
 
-    public User(String userId, String password, boolean isAdmin, String name, String email) {
+    public User(String userId, String passwordHash, boolean isAdmin, String name, String email) {
         this.userId = userId;
-        this.password = password;
+        this.passwordHash = passwordHash;
         this.isAdmin = isAdmin;
         this.name = name;
         this.email = email;
@@ -17,5 +17,7 @@ public class User {
     public String getName() { return name; }
     public boolean isAdmin() { return isAdmin; }
     public String getEmail() { return email; }
-    public boolean verifyPassword(String inputPassword) { return password.equals(inputPassword); }
+    public boolean verifyPassword(String inputPassword) { return PasswordHasher.verify(inputPassword, passwordHash); }
+    // Only for persistence and login checks; never display this
+    String getPasswordHash() { return passwordHash; }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Users indexed by userId and by lower-cased email. Synchronized so the service
+// can be called from several threads; all() returns a snapshot copy.
+public class UserRepository {
+    private final Map<String, User> byId = new LinkedHashMap<>();
+    private final Map<String, User> byEmail = new HashMap<>();
+
+    public synchronized void add(User user) {
+        byId.put(user.getUserId(), user);
+        byEmail.put(user.getEmail().toLowerCase(), user);
+    }
+
+    public synchronized boolean remove(User user) {
+        if (byId.remove(user.getUserId()) == null) return false;
+        byEmail.remove(user.getEmail().toLowerCase());
+        return true;
+    }
+
+    public synchronized User findById(String userId) { return byId.get(userId); }
+    public synchronized User findByEmail(String email) { return byEmail.get(email.toLowerCase()); }
+    public synchronized boolean exists(String userId) { return byId.containsKey(userId); }
+    public synchronized boolean isEmailTaken(String email) { return byEmail.containsKey(email.toLowerCase()); }
+    public synchronized Collection<User> all() { return new ArrayList<>(byId.values()); }
+    public synchronized int size() { return byId.size(); }
+}
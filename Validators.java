@@ -0,0 +1,117 @@
+// Allocation-free input checks shared by the console, the HTTP API and bulk
+// import. Each one is a single pass over the characters and accepts exactly what
+// the regular expression in its comment would, without compiling a Pattern per call.
+public class Validators {
+    private Validators() {}
+
+    // \d{length}
+    public static boolean isDigits(String s, int length) {
+        return s.length() == length && allDigits(s, 0, length);
+    }
+
+    // \d{min,max}
+    public static boolean isDigits(String s, int min, int max) {
+        return s.length() >= min && s.length() <= max && allDigits(s, 0, s.length());
+    }
+
+    // \d{4}-\d{2}-\d{2}; whether it is a real calendar date is left to LocalDate.parse
+    public static boolean isIsoDate(String s) {
+        return s.length() == 10 && allDigits(s, 0, 4) && s.charAt(4) == '-'
+                && allDigits(s, 5, 7) && s.charAt(7) == '-' && allDigits(s, 8, 10);
+    }
+
+    // [a-zA-Z ]+
+    public static boolean isName(String s) {
+        if (s.isEmpty()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!isLetter(c) && c != ' ') return false;
+        }
+        return true;
+    }
+
+    // 6-20 characters with at least one lowercase letter, one uppercase letter and one digit
+    public static boolean isStrongPassword(String s) {
+        if (s.length() < 6 || s.length() > 20) return false;
+        boolean lower = false, upper = false, digit = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 'a' && c <= 'z') lower = true;
+            else if (c >= 'A' && c <= 'Z') upper = true;
+            else if (c >= '0' && c <= '9') digit = true;
+        }
+        return lower && upper && digit;
+    }
+
+    // ^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\.[a-zA-Z]{2,}$
+    public static boolean isEmail(String s) {
+        int at = s.indexOf('@');
+        if (at < 1) return false;
+        for (int i = 0; i < at; i++) {
+            char c = s.charAt(i);
+            if (!isLetterOrDigit(c) && ".%+-_".indexOf(c) < 0) return false;
+        }
+        // The top-level domain is everything after the last dot, so it cannot contain one
+        int lastDot = s.lastIndexOf('.');
+        if (lastDot < at + 2 || s.length() - lastDot - 1 < 2) return false;
+        for (int i = at + 1; i < lastDot; i++) {
+            char c = s.charAt(i);
+            if (!isLetterOrDigit(c) && c != '.' && c != '-') return false;
+        }
+        for (int i = lastDot + 1; i < s.length(); i++) {
+            if (!isLetter(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // 16 digits passing the Luhn checksum
+    public static boolean isCardNumber(String s) {
+        return isDigits(s, 16) && passesLuhn(s);
+    }
+
+    public static boolean passesLuhn(String digits) {
+        int sum = 0;
+        boolean doubleIt = false;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int d = digits.charAt(i) - '0';
+            if (doubleIt) {
+                d *= 2;
+                if (d > 9) d -= 9;
+            }
+            sum += d;
+            doubleIt = !doubleIt;
+        }
+        return sum % 10 == 0;
+    }
+
+    // MM/YY with a month of 01-12
+    public static boolean isExpiry(String s) {
+        if (s.length() != 5 || !allDigits(s, 0, 2) || s.charAt(2) != '/' || !allDigits(s, 3, 5)) return false;
+        int month = (s.charAt(0) - '0') * 10 + (s.charAt(1) - '0');
+        return month >= 1 && month <= 12;
+    }
+
+    public static boolean isCvv(String s) {
+        return isDigits(s, 3);
+    }
+
+    public static boolean isPhone(String s) {
+        return isDigits(s, 10);
+    }
+
+    private static boolean allDigits(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9');
+    }
+}